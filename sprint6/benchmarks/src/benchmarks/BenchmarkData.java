@@ -0,0 +1,95 @@
+package benchmarks;
+
+import controllers.*;
+import model.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+
+final class BenchmarkData {
+    static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    static final int SUBTASKS_PER_EPIC = 10;
+
+    private BenchmarkData() {
+    }
+
+    static TaskManager createManager(String manager, File file) {
+        switch (manager) {
+            case "memory":
+                return Managers.getDefault();
+            case "concurrent":
+                return Managers.getDefaultConcurrent();
+            case "file":
+            case "file-immediate":
+            case "file-every-1000":
+                return new FileBackedTasksManager(file, SnapshotFormat.CSV, PersistenceMode.SNAPSHOT, 1000,
+                        FlushPolicy.manual());
+            case "journal":
+                return new FileBackedTasksManager(file, SnapshotFormat.CSV, PersistenceMode.JOURNAL,
+                        Integer.MAX_VALUE, FlushPolicy.everyOperations(1000));
+            default:
+                throw new IllegalArgumentException("Неизвестный менеджер: " + manager);
+        }
+    }
+
+    /**
+     * Менеджеры с записью на диск при изменениях заполняются без записи, а затем открываются заново из файла
+     * с нужной политикой, иначе подготовка больших наборов занимала бы квадратичное время.
+     */
+    static TaskManager withFlushPolicy(String manager, TaskManager taskManager, File file) {
+        FlushPolicy flushPolicy;
+        switch (manager) {
+            case "file-immediate":
+                flushPolicy = FlushPolicy.immediate();
+                break;
+            case "file-every-1000":
+                flushPolicy = FlushPolicy.everyOperations(1000);
+                break;
+            default:
+                return taskManager;
+        }
+        close(taskManager);
+        return FileBackedTasksManager.loadFromFile(file, PersistenceMode.SNAPSHOT, flushPolicy);
+    }
+
+    static File createFile() throws IOException {
+        File file = File.createTempFile("benchmark", ".csv");
+        file.deleteOnExit();
+        return file;
+    }
+
+    static void deleteFile(File file) {
+        new File(file.getPath() + ".journal").delete();
+        new File(file.getPath() + ".tmp").delete();
+        file.delete();
+    }
+
+    static void close(TaskManager taskManager) {
+        if (taskManager instanceof FileBackedTasksManager) {
+            ((FileBackedTasksManager) taskManager).close();
+        }
+    }
+
+    static LocalDateTime slot(int index) {
+        return START.plusMinutes(2L * index);
+    }
+
+    static void fillTasks(TaskManager taskManager, int size) {
+        for (int i = 0; i < size; i++) {
+            taskManager.addTask(new Task("Задача " + i, "Описание задачи", slot(i), 1));
+        }
+    }
+
+    static void fillEpics(TaskManager taskManager, int size, int firstSlot) {
+        Epic epic = null;
+        for (int i = 0; i < size; i++) {
+            if (i % SUBTASKS_PER_EPIC == 0) {
+                epic = new Epic("Эпик " + i, "Описание эпика");
+                taskManager.addEpic(epic);
+            }
+            taskManager.addSubtask(new Subtask("Подзадача " + i, "Описание подзадачи", 0, Status.NEW,
+                    epic.getId(), slot(firstSlot + i), 1));
+        }
+    }
+}
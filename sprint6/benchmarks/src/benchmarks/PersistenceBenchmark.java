@@ -0,0 +1,60 @@
+package benchmarks;
+
+import controllers.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+public class PersistenceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"CSV", "BINARY"})
+    public SnapshotFormat format;
+
+    private FileBackedTasksManager fileManager;
+    private File file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = BenchmarkData.createFile();
+        fileManager = new FileBackedTasksManager(file, format, PersistenceMode.SNAPSHOT, 1000,
+                FlushPolicy.manual());
+        BenchmarkData.fillTasks(fileManager, size / 2);
+        BenchmarkData.fillEpics(fileManager, size / 2, size / 2);
+        for (int id = 1; id <= size; id += 10) {
+            fileManager.getTaskById(id);
+        }
+        fileManager.save();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fileManager.close();
+        BenchmarkData.deleteFile(file);
+    }
+
+    @Benchmark
+    public void save() {
+        fileManager.save();
+    }
+
+    @Benchmark
+    public FileBackedTasksManager loadFromFile() {
+        return FileBackedTasksManager.loadFromFile(file);
+    }
+
+    @Benchmark
+    public FileBackedTasksManager loadFromMappedFile() {
+        return FileBackedTasksManager.loadFromMappedFile(file);
+    }
+}
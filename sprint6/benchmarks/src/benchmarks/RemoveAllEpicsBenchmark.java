@@ -0,0 +1,45 @@
+package benchmarks;
+
+import controllers.TaskManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RemoveAllEpicsBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"memory", "concurrent", "file", "file-immediate", "file-every-1000", "journal"})
+    public String manager;
+
+    private TaskManager taskManager;
+    private File file;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        file = BenchmarkData.createFile();
+        taskManager = BenchmarkData.createManager(manager, file);
+        BenchmarkData.fillEpics(taskManager, size, 0);
+        taskManager = BenchmarkData.withFlushPolicy(manager, taskManager, file);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        BenchmarkData.close(taskManager);
+        BenchmarkData.deleteFile(file);
+    }
+
+    @Benchmark
+    public void removeAllEpics() {
+        taskManager.removeAllEpics();
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import controllers.TaskManager;
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskManagerBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    @Param({"memory", "concurrent", "file", "file-immediate", "file-every-1000", "journal"})
+    public String manager;
+
+    private TaskManager taskManager;
+    private File file;
+    private int epicId;
+    private int nextSlot;
+    private int[] viewIds;
+    private int viewCursor;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        file = BenchmarkData.createFile();
+        taskManager = BenchmarkData.createManager(manager, file);
+        BenchmarkData.fillTasks(taskManager, size);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.addEpic(epic);
+        epicId = epic.getId();
+        taskManager = BenchmarkData.withFlushPolicy(manager, taskManager, file);
+        nextSlot = size;
+
+        Random random = new Random(42);
+        viewIds = new int[1 << 16];
+        for (int i = 0; i < viewIds.length; i++) {
+            viewIds[i] = 1 + random.nextInt(size);
+        }
+        viewCursor = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        BenchmarkData.close(taskManager);
+        BenchmarkData.deleteFile(file);
+    }
+
+    @Benchmark
+    public void addTask() {
+        taskManager.addTask(new Task("Задача", "Описание задачи", BenchmarkData.slot(nextSlot++), 1));
+    }
+
+    @Benchmark
+    public void addSubtask() {
+        taskManager.addSubtask(new Subtask("Подзадача", "Описание подзадачи", 0, Status.NEW, epicId,
+                BenchmarkData.slot(nextSlot++), 1));
+    }
+
+    @Benchmark
+    public Task getTaskById() {
+        return taskManager.getTaskById(viewIds[viewCursor++ & (viewIds.length - 1)]);
+    }
+
+    @Benchmark
+    public List<Task> getPrioritizedTasks() {
+        return taskManager.getPrioritizedTasks();
+    }
+}
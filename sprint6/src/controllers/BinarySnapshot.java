@@ -0,0 +1,181 @@
+package controllers;
+
+import model.*;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+final class BinarySnapshot {
+    static final int MAGIC = 0x544B534E;
+    private static final int VERSION = 1;
+
+    private static final int HAS_START_TIME = 1 << 4;
+    private static final int HAS_END_TIME = 1 << 5;
+
+    private static final TaskType[] TASK_TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private BinarySnapshot() {
+    }
+
+    static boolean isBinary(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            return in.readInt() == MAGIC;
+        } catch (EOFException e) {
+            return false;
+        }
+    }
+
+    static void write(DataOutputStream out, Collection<Task> tasks, Collection<Epic> epics,
+                      Collection<Subtask> subtasks, List<Task> history) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        writeVarLong(out, tasks.size() + epics.size() + subtasks.size());
+        for (Task task : tasks) {
+            writeTask(out, task);
+        }
+        for (Epic epic : epics) {
+            writeTask(out, epic);
+        }
+        for (Subtask subtask : subtasks) {
+            writeTask(out, subtask);
+        }
+        writeVarLong(out, history.size());
+        for (Task task : history) {
+            writeVarLong(out, task.getId());
+        }
+    }
+
+    static void read(ByteBuffer buffer, Consumer<Task> taskConsumer, IntConsumer historyConsumer)
+            throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Файл не является бинарным снимком задач.");
+            }
+            int version = Byte.toUnsignedInt(buffer.get());
+            if (version != VERSION) {
+                throw new IOException("Неподдерживаемая версия бинарного снимка: " + version);
+            }
+            long count = readVarLong(buffer);
+            for (long i = 0; i < count; i++) {
+                taskConsumer.accept(readTask(buffer));
+            }
+            long historySize = readVarLong(buffer);
+            for (long i = 0; i < historySize; i++) {
+                historyConsumer.accept((int) readVarLong(buffer));
+            }
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Бинарный снимок обрывается раньше времени.");
+        }
+    }
+
+    private static void writeTask(DataOutputStream out, Task task) throws IOException {
+        TaskType taskType = task.getTaskType();
+        long startMinute = task.getStartMinute();
+        long endMinute = taskType == TaskType.EPIC ? task.getEndMinute() : EpochMinutes.NONE;
+        int header = taskType.ordinal() | task.getStatus().ordinal() << 2;
+        if (startMinute != EpochMinutes.NONE) {
+            header |= HAS_START_TIME;
+        }
+        if (endMinute != EpochMinutes.NONE) {
+            header |= HAS_END_TIME;
+        }
+        out.writeByte(header);
+        writeVarLong(out, task.getId());
+        writeString(out, task.getName());
+        writeString(out, task.getDescription());
+        writeVarLong(out, zigZag(task.getDuration()));
+        if (startMinute != EpochMinutes.NONE) {
+            writeVarLong(out, zigZag(startMinute));
+        }
+        if (endMinute != EpochMinutes.NONE) {
+            writeVarLong(out, zigZag(endMinute));
+        }
+        if (taskType == TaskType.SUBTASK) {
+            writeVarLong(out, ((Subtask) task).getEpicId());
+        }
+    }
+
+    private static Task readTask(ByteBuffer buffer) throws IOException {
+        int header = Byte.toUnsignedInt(buffer.get());
+        TaskType taskType = TASK_TYPES[header & 3];
+        Status status = STATUSES[(header >> 2) & 3];
+        int id = (int) readVarLong(buffer);
+        String name = readString(buffer);
+        String description = readString(buffer);
+        long duration = unZigZag(readVarLong(buffer));
+        long startMinute = (header & HAS_START_TIME) != 0 ? unZigZag(readVarLong(buffer)) : EpochMinutes.NONE;
+        long endMinute = (header & HAS_END_TIME) != 0 ? unZigZag(readVarLong(buffer)) : EpochMinutes.NONE;
+        Task task;
+        switch (taskType) {
+            case EPIC:
+                Epic epic = new Epic(name, description, id, status, null, duration, null);
+                epic.setEndMinute(endMinute);
+                task = epic;
+                break;
+            case SUBTASK:
+                int epicId = (int) readVarLong(buffer);
+                task = new Subtask(name, description, id, status, epicId, null, duration);
+                break;
+            default:
+                task = new Task(name, description, id, status, null, duration);
+                break;
+        }
+        task.setStartMinute(startMinute);
+        return task;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) throws IOException {
+        int length = (int) readVarLong(buffer);
+        if (length == 0) {
+            return null;
+        }
+        String value = StandardCharsets.UTF_8.decode(buffer.slice(buffer.position(), length - 1)).toString();
+        buffer.position(buffer.position() + length - 1);
+        return value;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = Byte.toUnsignedInt(buffer.get());
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Повреждённое число в бинарном снимке.");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
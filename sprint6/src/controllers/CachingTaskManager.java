@@ -0,0 +1,432 @@
+package controllers;
+
+import model.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.function.IntFunction;
+
+/**
+ * Кэш перед медленным менеджером задач. Задачи по id и списки подзадач эпиков хранятся в LRU-кэшах
+ * ограниченного размера, изменения сразу уходят в менеджер и вытесняют затронутые записи. Попадание
+ * в кэш по-прежнему записывает просмотр в историю через recordView, поэтому история совпадает с той,
+ * что получилась бы без кэша. Загрузка, начатая до изменения, в кэш не попадает.
+ */
+public class CachingTaskManager implements TaskManager {
+
+    private final TaskManager backend;
+    private final LruCache<Task> entries;
+    private final LruCache<List<Subtask>> epicSubtasks;
+    private long generation;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public CachingTaskManager(TaskManager backend, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным: " + capacity);
+        }
+        this.backend = backend;
+        this.entries = new LruCache<>(capacity);
+        this.epicSubtasks = new LruCache<>(capacity);
+    }
+
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    public synchronized int getSize() {
+        return entries.size() + epicSubtasks.size();
+    }
+
+    @Override
+    public Task getTaskById(int id) {
+        return get(id, TaskType.TASK, backend::getTaskById);
+    }
+
+    @Override
+    public Epic getEpicById(int id) {
+        return get(id, TaskType.EPIC, backend::getEpicById);
+    }
+
+    @Override
+    public Subtask getSubtaskById(int id) {
+        return get(id, TaskType.SUBTASK, backend::getSubtaskById);
+    }
+
+    @Override
+    public void recordView(int id) {
+        backend.recordView(id);
+    }
+
+    @Override
+    public Task findTask(int id) {
+        return backend.findTask(id);
+    }
+
+    @Override
+    public List<Subtask> getListOfSubtasksByOneEpic(int id) {
+        List<Subtask> cached;
+        long seen;
+        synchronized (this) {
+            cached = epicSubtasks.get(id);
+            count(cached != null);
+            seen = generation;
+        }
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        List<Subtask> loaded = backend.getListOfSubtasksByOneEpic(id);
+        synchronized (this) {
+            if (generation == seen) {
+                epicSubtasks.put(id, List.copyOf(loaded));
+            }
+        }
+        return loaded;
+    }
+
+    @Override
+    public void addTask(Task newTask) {
+        backend.addTask(newTask);
+    }
+
+    @Override
+    public void addSubtask(Subtask newSubtask) {
+        backend.addSubtask(newSubtask);
+        invalidate(newSubtask.getEpicId());
+    }
+
+    @Override
+    public void addEpic(Epic newEpic) {
+        backend.addEpic(newEpic);
+    }
+
+    @Override
+    public void addAll(Collection<? extends Task> newTasks) {
+        backend.addAll(newTasks);
+        for (Task newTask : newTasks) {
+            if (newTask.getTaskType() == TaskType.SUBTASK) {
+                invalidate(((Subtask) newTask).getEpicId());
+            }
+        }
+    }
+
+    @Override
+    public void updateAll(Collection<? extends Task> updatedTasks) {
+        backend.updateAll(updatedTasks);
+        for (Task updatedTask : updatedTasks) {
+            invalidate(updatedTask.getId());
+            if (updatedTask.getTaskType() == TaskType.SUBTASK) {
+                invalidate(((Subtask) updatedTask).getEpicId());
+            }
+        }
+    }
+
+    @Override
+    public void removeAll(Collection<Integer> ids) {
+        backend.removeAll(ids);
+        for (Integer id : ids) {
+            invalidateRemoved(id);
+        }
+    }
+
+    @Override
+    public void removeAllTasks() {
+        backend.removeAllTasks();
+        invalidate(TaskType.TASK);
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        backend.removeAllSubtasks();
+        invalidate(TaskType.SUBTASK);
+        invalidate(TaskType.EPIC);
+    }
+
+    @Override
+    public void removeAllEpics() {
+        backend.removeAllEpics();
+        invalidate(TaskType.SUBTASK);
+        invalidate(TaskType.EPIC);
+    }
+
+    @Override
+    public void removeTaskById(int taskId) {
+        backend.removeTaskById(taskId);
+        invalidate(taskId);
+    }
+
+    @Override
+    public void removeEpicById(int epicId) {
+        backend.removeEpicById(epicId);
+        invalidateRemoved(epicId);
+    }
+
+    @Override
+    public void removeSubtaskById(int subtaskIdForRemove) {
+        backend.removeSubtaskById(subtaskIdForRemove);
+        invalidateRemoved(subtaskIdForRemove);
+    }
+
+    @Override
+    public void updateTask(Task updateTask) {
+        backend.updateTask(updateTask);
+        invalidate(updateTask.getId());
+    }
+
+    @Override
+    public void updateEpic(Epic updateEpic) {
+        backend.updateEpic(updateEpic);
+        invalidate(updateEpic.getId());
+    }
+
+    @Override
+    public void updateSubtask(Subtask updateSubtask) {
+        backend.updateSubtask(updateSubtask);
+        invalidate(updateSubtask.getId());
+        invalidate(updateSubtask.getEpicId());
+    }
+
+    @Override
+    public void checkEpicStatus(int epicId) {
+        backend.checkEpicStatus(epicId);
+        invalidate(epicId);
+    }
+
+    @Override
+    public void setEpicDateTime(int epicId) {
+        backend.setEpicDateTime(epicId);
+        invalidate(epicId);
+    }
+
+    @Override
+    public List<Task> getListOfTasks() {
+        return backend.getListOfTasks();
+    }
+
+    @Override
+    public List<Epic> getListOfEpics() {
+        return backend.getListOfEpics();
+    }
+
+    @Override
+    public List<Subtask> getListOfSubtasks() {
+        return backend.getListOfSubtasks();
+    }
+
+    @Override
+    public List<Task> getListOfTasksByStatus(Status status) {
+        return backend.getListOfTasksByStatus(status);
+    }
+
+    @Override
+    public List<Task> getListOfTasksByType(TaskType type) {
+        return backend.getListOfTasksByType(type);
+    }
+
+    @Override
+    public List<Task> getListOfTasksByTypeAndStatus(TaskType type, Status status) {
+        return backend.getListOfTasksByTypeAndStatus(type, status);
+    }
+
+    @Override
+    public List<Task> getHistory() {
+        return backend.getHistory();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return backend.getPrioritizedTasks();
+    }
+
+    @Override
+    public NavigableSet<Task> getPrioritizedTasksView() {
+        return backend.getPrioritizedTasksView();
+    }
+
+    @Override
+    public NavigableSet<Task> getPrioritizedTasksView(LocalDateTime from, LocalDateTime to) {
+        return backend.getPrioritizedTasksView(from, to);
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksPage(Task cursor, int limit) {
+        return backend.getPrioritizedTasksPage(cursor, limit);
+    }
+
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        return backend.getTasksBetween(from, to);
+    }
+
+    @Override
+    public int countTasksInRange(LocalDateTime from, LocalDateTime to) {
+        return backend.countTasksInRange(from, to);
+    }
+
+    @Override
+    public LocalDateTime getNextFreeSlot(long duration, LocalDateTime after) {
+        return backend.getNextFreeSlot(duration, after);
+    }
+
+    @Override
+    public void validate(Task newTask) {
+        backend.validate(newTask);
+    }
+
+    @Override
+    public void beginTransaction() {
+        backend.beginTransaction();
+    }
+
+    @Override
+    public void commit() {
+        backend.commit();
+    }
+
+    @Override
+    public void rollback() {
+        backend.rollback();
+        invalidateAll();
+    }
+
+    @Override
+    public void inTransaction(Runnable work) {
+        try {
+            backend.inTransaction(work);
+        } catch (Throwable e) {
+            invalidateAll();
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Task> T get(int id, TaskType type, IntFunction<T> loader) {
+        Task cached;
+        long seen;
+        synchronized (this) {
+            cached = entries.get(id);
+            count(cached != null);
+            seen = generation;
+        }
+        if (cached != null) {
+            if (cached.getTaskType() != type) {
+                return null;
+            }
+            backend.recordView(id);
+            return (T) cached;
+        }
+        T loaded = loader.apply(id);
+        if (loaded != null) {
+            synchronized (this) {
+                if (generation == seen) {
+                    entries.put(id, loaded);
+                }
+            }
+        }
+        return loaded;
+    }
+
+    private void count(boolean hit) {
+        if (hit) {
+            hits++;
+        } else {
+            misses++;
+        }
+    }
+
+    private synchronized void invalidate(int id) {
+        generation++;
+        entries.remove(id);
+        epicSubtasks.remove(id);
+    }
+
+    private synchronized void invalidate(TaskType type) {
+        generation++;
+        entries.values().removeIf(task -> task.getTaskType() == type);
+        if (type != TaskType.TASK) {
+            epicSubtasks.clear();
+        }
+    }
+
+    /**
+     * Удалённая подзадача меняет свой эпик, удалённый эпик уносит подзадачи. Если запись не была
+     * в кэше, тип id неизвестен, и вытесняются все эпики и подзадачи.
+     */
+    private synchronized void invalidateRemoved(int id) {
+        generation++;
+        Task removed = entries.remove(id);
+        epicSubtasks.remove(id);
+        if (removed == null) {
+            invalidate(TaskType.EPIC);
+            invalidate(TaskType.SUBTASK);
+        } else if (removed.getTaskType() == TaskType.SUBTASK) {
+            invalidate(((Subtask) removed).getEpicId());
+        } else if (removed.getTaskType() == TaskType.EPIC) {
+            entries.values().removeIf(task -> task.getTaskType() == TaskType.SUBTASK
+                    && ((Subtask) task).getEpicId() == id);
+        }
+    }
+
+    private synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        epicSubtasks.clear();
+    }
+
+    /**
+     * LinkedHashMap в порядке доступа: после вставки сверх ёмкости удаляется самая давняя запись.
+     */
+    private class LruCache<V> {
+        private final Map<Integer, V> map = new LinkedHashMap<>(16, 0.75f, true);
+        private final int capacity;
+
+        private LruCache(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private V get(int id) {
+            return map.get(id);
+        }
+
+        private void put(int id, V value) {
+            map.put(id, value);
+            if (map.size() > capacity) {
+                Iterator<V> eldest = map.values().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions++;
+            }
+        }
+
+        private V remove(int id) {
+            return map.remove(id);
+        }
+
+        private Collection<V> values() {
+            return map.values();
+        }
+
+        private int size() {
+            return map.size();
+        }
+
+        private void clear() {
+            map.clear();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package controllers;
+
+import model.Task;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConcurrentHistoryManager implements HistoryManager {
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Integer, Long> idSequence = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, Task> accessLog = new ConcurrentSkipListMap<>();
+
+    @Override
+    public List<Task> getHistory() {
+        Map<Integer, Task> history = new LinkedHashMap<>();
+        for (Task task : accessLog.values()) {
+            history.remove(task.getId());
+            history.put(task.getId(), task);
+        }
+        return new ArrayList<>(history.values());
+    }
+
+    @Override
+    public void add(Task task) {
+        long taskSequence = sequence.incrementAndGet();
+        accessLog.put(taskSequence, task);
+        Long previousSequence = idSequence.put(task.getId(), taskSequence);
+        if (previousSequence != null) {
+            accessLog.remove(previousSequence);
+        }
+    }
+
+    @Override
+    public void remove(int id) {
+        Long previousSequence = idSequence.remove(id);
+        if (previousSequence != null) {
+            accessLog.remove(previousSequence);
+        }
+    }
+}
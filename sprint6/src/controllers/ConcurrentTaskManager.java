@@ -0,0 +1,314 @@
+package controllers;
+
+import model.Epic;
+import model.EpochMinutes;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConcurrentTaskManager extends InMemoryTaskManager {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final AtomicInteger idGenerator = new AtomicInteger();
+    private final ReentrantLock scheduleLock = new ReentrantLock();
+    private final ReentrantLock[] epicLocks = new ReentrantLock[LOCK_STRIPES];
+
+    public ConcurrentTaskManager() {
+        super(new ConcurrentTaskStore(), Managers.getDefaultConcurrentHistory(), new StatusIndex(true));
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    protected int generateId() {
+        return idGenerator.incrementAndGet();
+    }
+
+    @Override
+    public void addTask(Task newTask) {
+        withSchedule(() -> super.addTask(newTask));
+    }
+
+    @Override
+    public void addSubtask(Subtask newSubtask) {
+        withEpic(newSubtask.getEpicId(), () -> withSchedule(newSubtask, () -> super.addSubtask(newSubtask)));
+    }
+
+    @Override
+    public void addEpic(Epic newEpic) {
+        withSchedule(() -> super.addEpic(newEpic));
+    }
+
+    @Override
+    public void addAll(Collection<? extends Task> newTasks) {
+        withEpics(epicIdsOf(newTasks), () -> withSchedule(() -> super.addAll(newTasks)));
+    }
+
+    @Override
+    public void updateAll(Collection<? extends Task> updatedTasks) {
+        withEpics(epicIdsOf(updatedTasks), () -> withSchedule(() -> super.updateAll(updatedTasks)));
+    }
+
+    @Override
+    public void removeAll(Collection<Integer> ids) {
+        List<Integer> epicIds = new ArrayList<>();
+        for (int id : ids) {
+            Subtask subtask = subtasks.get(id);
+            if (subtask != null) {
+                epicIds.add(subtask.getEpicId());
+            } else if (epics.containsKey(id)) {
+                epicIds.add(id);
+            }
+        }
+        withEpics(epicIds, () -> withSchedule(() -> super.removeAll(ids)));
+    }
+
+    @Override
+    public void removeAllTasks() {
+        for (Task task : tasks.values()) {
+            removeTaskById(task.getId());
+        }
+    }
+
+    @Override
+    public void removeAllSubtasks() {
+        for (Epic epic : epics.values()) {
+            int epicId = epic.getId();
+            withEpic(epicId, () -> {
+                epic.forEachSubtaskId(subtaskId -> {
+                    Subtask subtask = subtasks.remove(subtaskId);
+                    if (subtask != null) {
+                        statusIndex.remove(subtask);
+                    }
+                    inMemoryHistoryManager.remove(subtaskId);
+                });
+                epic.clearSubtasks();
+                statusIndex.put(epic);
+            });
+        }
+    }
+
+    @Override
+    public void removeAllEpics() {
+        for (Epic epic : epics.values()) {
+            removeEpicById(epic.getId());
+        }
+    }
+
+    @Override
+    public List<Subtask> getListOfSubtasksByOneEpic(int id) {
+        epicLock(id).lock();
+        try {
+            if (!epics.containsKey(id)) {
+                return new ArrayList<>();
+            }
+            return super.getListOfSubtasksByOneEpic(id);
+        } finally {
+            epicLock(id).unlock();
+        }
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        withSchedule(() -> {
+            Task task = tasks.remove(id);
+            if (task != null) {
+                statusIndex.remove(task);
+                inMemoryHistoryManager.remove(id);
+            }
+        });
+    }
+
+    @Override
+    public void removeEpicById(int epicId) {
+        withEpic(epicId, () -> {
+            if (epics.containsKey(epicId)) {
+                super.removeEpicById(epicId);
+            }
+        });
+    }
+
+    @Override
+    public void removeSubtaskById(int subtaskIdForRemove) {
+        Subtask subtask = subtasks.get(subtaskIdForRemove);
+        if (subtask == null) {
+            return;
+        }
+        withEpic(subtask.getEpicId(), () -> {
+            if (subtasks.containsKey(subtaskIdForRemove)) {
+                super.removeSubtaskById(subtaskIdForRemove);
+            }
+        });
+    }
+
+    @Override
+    public void updateTask(Task updateTask) {
+        withSchedule(() -> super.updateTask(updateTask));
+    }
+
+    @Override
+    public void updateEpic(Epic updateEpic) {
+        withEpic(updateEpic.getId(), () -> super.updateEpic(updateEpic));
+    }
+
+    @Override
+    public void updateSubtask(Subtask updateSubtask) {
+        withEpic(updateSubtask.getEpicId(), () -> withSchedule(updateSubtask, () -> super.updateSubtask(updateSubtask)));
+    }
+
+    @Override
+    public void checkEpicStatus(int epicId) {
+        withEpic(epicId, () -> super.checkEpicStatus(epicId));
+    }
+
+    @Override
+    public void setEpicDateTime(int epicId) {
+        withEpic(epicId, () -> super.setEpicDateTime(epicId));
+    }
+
+    @Override
+    public void validate(Task newTask) {
+        scheduleLock.lock();
+        try {
+            super.validate(newTask);
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+
+    /**
+     * Транзакция держит все полосы блокировок эпиков и блокировку расписания до commit или rollback. Любая
+     * запись задач, подзадач и эпиков берёт хотя бы одну из них, поэтому писатели из других потоков ждут
+     * конца транзакции, и откат не затирает их изменения. Чтение не блокируется и может увидеть
+     * незафиксированные изменения. Просмотры других потоков за время транзакции откат из истории убирает.
+     * Завершить транзакцию может только поток, который её начал.
+     */
+    @Override
+    public void beginTransaction() {
+        lockAll();
+        try {
+            super.beginTransaction();
+        } catch (RuntimeException e) {
+            unlockAll();
+            throw e;
+        }
+    }
+
+    @Override
+    public void commit() {
+        checkTransactionOwner();
+        try {
+            super.commit();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    @Override
+    public void rollback() {
+        checkTransactionOwner();
+        try {
+            super.rollback();
+        } finally {
+            unlockAll();
+        }
+    }
+
+    private void checkTransactionOwner() {
+        if (!scheduleLock.isHeldByCurrentThread() || !isInTransaction()) {
+            throw new IllegalStateException("Транзакция не начата в этом потоке");
+        }
+    }
+
+    /** Порядок тот же, что у одиночных операций: сначала полосы эпиков по возрастанию, затем расписание. */
+    private void lockAll() {
+        for (ReentrantLock lock : epicLocks) {
+            lock.lock();
+        }
+        scheduleLock.lock();
+    }
+
+    private void unlockAll() {
+        scheduleLock.unlock();
+        for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+            epicLocks[i].unlock();
+        }
+    }
+
+    private ReentrantLock epicLock(int epicId) {
+        return epicLocks[Math.floorMod(epicId, LOCK_STRIPES)];
+    }
+
+    private void withEpic(int epicId, Runnable action) {
+        ReentrantLock lock = epicLock(epicId);
+        lock.lock();
+        try {
+            action.run();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void withEpics(Collection<Integer> epicIds, Runnable action) {
+        boolean[] stripes = new boolean[LOCK_STRIPES];
+        for (int epicId : epicIds) {
+            stripes[Math.floorMod(epicId, LOCK_STRIPES)] = true;
+        }
+        int locked = 0;
+        try {
+            for (; locked < LOCK_STRIPES; locked++) {
+                if (stripes[locked]) {
+                    epicLocks[locked].lock();
+                }
+            }
+            action.run();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                if (stripes[i]) {
+                    epicLocks[i].unlock();
+                }
+            }
+        }
+    }
+
+    private static List<Integer> epicIdsOf(Collection<? extends Task> batch) {
+        List<Integer> epicIds = new ArrayList<>();
+        for (Task task : batch) {
+            if (task.getTaskType() == TaskType.SUBTASK) {
+                epicIds.add(((Subtask) task).getEpicId());
+            } else if (task.getTaskType() == TaskType.EPIC) {
+                epicIds.add(task.getId());
+            }
+        }
+        return epicIds;
+    }
+
+    /**
+     * Подзадача без времени не трогает расписание, а полоса её эпика уже захвачена, поэтому блокировка
+     * расписания ей не нужна.
+     */
+    private void withSchedule(Task task, Runnable action) {
+        if (task.getStartMinute() == EpochMinutes.NONE) {
+            action.run();
+            return;
+        }
+        withSchedule(action);
+    }
+
+    private void withSchedule(Runnable action) {
+        scheduleLock.lock();
+        try {
+            action.run();
+        } finally {
+            scheduleLock.unlock();
+        }
+    }
+}
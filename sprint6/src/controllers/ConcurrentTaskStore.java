@@ -0,0 +1,99 @@
+package controllers;
+
+import model.Task;
+import model.TaskType;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Потокобезопасное хранилище в куче для ConcurrentTaskManager: ConcurrentHashMap на тип и
+ * ConcurrentSkipListSet по времени начала. IntKeyMap здесь не подходит, он не допускает параллельных
+ * изменений, поэтому id упаковываются.
+ */
+final class ConcurrentTaskStore implements TaskStore {
+
+    private final Map<Integer, Task> tasks = new ConcurrentHashMap<>();
+    private final Map<Integer, Task> subtasks = new ConcurrentHashMap<>();
+    private final Map<Integer, Task> epics = new ConcurrentHashMap<>();
+    private final NavigableSet<Task> byStartTime = new ConcurrentSkipListSet<>(InMemoryTaskStore.START_TIME_ORDER);
+    private final NavigableSet<Task> byStartTimeView = Collections.unmodifiableNavigableSet(byStartTime);
+
+    @Override
+    public Task get(TaskType type, int id) {
+        return map(type).get(id);
+    }
+
+    @Override
+    public Task put(Task task) {
+        TaskType type = task.getTaskType();
+        Task oldTask = map(type).put(task.getId(), task);
+        if (type != TaskType.EPIC) {
+            if (oldTask != null) {
+                byStartTime.remove(oldTask);
+            }
+            byStartTime.add(task);
+        }
+        return oldTask;
+    }
+
+    @Override
+    public Task remove(TaskType type, int id) {
+        Task oldTask = map(type).remove(id);
+        if (oldTask != null && type != TaskType.EPIC) {
+            byStartTime.remove(oldTask);
+        }
+        return oldTask;
+    }
+
+    @Override
+    public Collection<Task> scan(TaskType type) {
+        return Collections.unmodifiableCollection(map(type).values());
+    }
+
+    @Override
+    public int size(TaskType type) {
+        return map(type).size();
+    }
+
+    @Override
+    public void clear(TaskType type) {
+        Map<Integer, Task> map = map(type);
+        if (type != TaskType.EPIC) {
+            for (Task task : map.values()) {
+                byStartTime.remove(task);
+            }
+        }
+        map.clear();
+    }
+
+    @Override
+    public NavigableSet<Task> byStartTime() {
+        return byStartTimeView;
+    }
+
+    @Override
+    public ScheduleCursor scheduleBefore(long startMinute) {
+        return new TaskScheduleCursor(byStartTime, startMinute);
+    }
+
+    @Override
+    public boolean offHeap() {
+        return false;
+    }
+
+    private Map<Integer, Task> map(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return epics;
+            case SUBTASK:
+                return subtasks;
+            default:
+                return tasks;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package controllers;
+
+import model.EpochMinutes;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * Разбор CSV за один проход по буферу символов. Поля записи складываются в общий массив без кавычек,
+ * числа и даты формата dd.MM.yy HH:mm читаются прямо из него, строки создаются только по запросу.
+ * Дата переводится в минуты от эпохи по цифрам, без LocalDateTime.
+ * Поле в кавычках может содержать запятые, переводы строк и удвоенные кавычки.
+ */
+final class CsvParser {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DATE_TIME_LENGTH = 14;
+    private static final String NULL = "null";
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private char[] record = new char[256];
+    private int recordLength;
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int fieldCount;
+
+    CsvParser(Reader reader) {
+        this.reader = reader;
+    }
+
+    boolean nextRecord() throws IOException {
+        recordLength = 0;
+        fieldCount = 0;
+        int c = read();
+        if (c < 0) {
+            return false;
+        }
+        int start = 0;
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    break;
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        position++;
+                        append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    append((char) c);
+                }
+            } else if (c < 0 || c == '\n') {
+                break;
+            } else if (c == ',') {
+                endField(start);
+                start = recordLength;
+            } else if (c == '"' && recordLength == start) {
+                quoted = true;
+            } else if (c != '\r' || peek() != '\n') {
+                append((char) c);
+            }
+            c = read();
+        }
+        endField(start);
+        return true;
+    }
+
+    int fieldCount() {
+        return fieldCount;
+    }
+
+    boolean isBlank() {
+        return fieldCount == 1 && fieldStart[0] == fieldEnd[0];
+    }
+
+    String text(int field) {
+        checkField(field);
+        return new String(record, fieldStart[field], fieldEnd[field] - fieldStart[field]);
+    }
+
+    boolean isNull(int field) {
+        checkField(field);
+        return matches(field, NULL);
+    }
+
+    int integer(int field) {
+        long value = number(field);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw invalid(field, "число");
+        }
+        return (int) value;
+    }
+
+    long number(int field) {
+        checkField(field);
+        int index = fieldStart[field];
+        int end = fieldEnd[field];
+        boolean negative = index < end && record[index] == '-';
+        if (negative) {
+            index++;
+        }
+        if (index == end || end - index > 18) {
+            throw invalid(field, "число");
+        }
+        long value = 0;
+        for (; index < end; index++) {
+            int digit = record[index] - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalid(field, "число");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Дата поля в минутах от эпохи, для null - EpochMinutes.NONE. Формат dd.MM.yy HH:mm разбирается
+     * по цифрам, год считается от 2000. Дата в другом виде читается как ISO-8601 через LocalDateTime.
+     */
+    long epochMinute(int field) {
+        if (isNull(field)) {
+            return EpochMinutes.NONE;
+        }
+        int start = fieldStart[field];
+        if (fieldEnd[field] - start != DATE_TIME_LENGTH || record[start + 2] != '.' || record[start + 5] != '.'
+                || record[start + 8] != ' ' || record[start + 11] != ':') {
+            return parseEpochMinute(field);
+        }
+        int year = 2000 + twoDigits(field, start + 6);
+        int month = twoDigits(field, start + 3);
+        int day = twoDigits(field, start);
+        int hour = twoDigits(field, start + 9);
+        int minute = twoDigits(field, start + 12);
+        if (month < 1 || month > 12 || day < 1 || day > monthLength(year, month) || hour > 23 || minute > 59) {
+            throw invalid(field, "дата");
+        }
+        return EpochMinutes.of(year, month, day, hour, minute);
+    }
+
+    private long parseEpochMinute(int field) {
+        try {
+            return EpochMinutes.of(LocalDateTime.parse(text(field)));
+        } catch (DateTimeParseException e) {
+            throw invalid(field, "дата");
+        }
+    }
+
+    /**
+     * Годы здесь от 2000 до 2099, в них високосен каждый четвёртый.
+     */
+    private static int monthLength(int year, int month) {
+        if (month == 2) {
+            return year % 4 == 0 ? 29 : 28;
+        }
+        return 30 + ((month + month / 8) & 1);
+    }
+
+    <E extends Enum<E>> E constant(int field, E[] values) {
+        checkField(field);
+        for (E value : values) {
+            if (matches(field, value.name())) {
+                return value;
+            }
+        }
+        throw invalid(field, "значение");
+    }
+
+    private boolean matches(int field, String expected) {
+        int start = fieldStart[field];
+        int length = fieldEnd[field] - start;
+        if (length != expected.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (record[start + i] != expected.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int twoDigits(int field, int index) {
+        int high = record[index] - '0';
+        int low = record[index + 1] - '0';
+        if (high < 0 || high > 9 || low < 0 || low > 9) {
+            throw invalid(field, "дата");
+        }
+        return high * 10 + low;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read = reader.read(buffer, 0, BUFFER_SIZE);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+
+    private void append(char c) {
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
+        }
+        record[recordLength++] = c;
+    }
+
+    private void endField(int start) {
+        if (fieldCount == fieldStart.length) {
+            fieldStart = Arrays.copyOf(fieldStart, fieldCount * 2);
+            fieldEnd = Arrays.copyOf(fieldEnd, fieldCount * 2);
+        }
+        fieldStart[fieldCount] = start;
+        fieldEnd[fieldCount] = recordLength;
+        fieldCount++;
+    }
+
+    private void checkField(int field) {
+        if (field >= fieldCount) {
+            throw new IllegalArgumentException("В строке CSV нет поля " + (field + 1) + ", полей: " + fieldCount);
+        }
+    }
+
+    private IllegalArgumentException invalid(int field, String expected) {
+        return new IllegalArgumentException("Некорректное " + expected + " в поле " + (field + 1) + ": '"
+                + text(field) + "'");
+    }
+}
@@ -0,0 +1,137 @@
+package controllers;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Потоковое чтение задач из CSV: следующая запись разбирается только при запросе очередной задачи,
+ * в памяти находятся буфер чтения и одна запись. После задач идёт пустая строка и строка истории
+ * просмотров, её возвращает readHistory().
+ */
+public final class CsvTaskReader implements Iterator<Task>, Closeable {
+
+    private final CsvParser parser;
+    private final Reader source;
+    private boolean headerSkipped;
+    private boolean pending;
+    private boolean tasksFinished;
+
+    public CsvTaskReader(InputStream in) {
+        this(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    public CsvTaskReader(Reader reader) {
+        this.parser = new CsvParser(reader);
+        this.source = reader;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (pending) {
+            return true;
+        }
+        if (tasksFinished) {
+            return false;
+        }
+        try {
+            if (!headerSkipped) {
+                headerSkipped = true;
+                if (!parser.nextRecord()) {
+                    tasksFinished = true;
+                    return false;
+                }
+            }
+            if (!parser.nextRecord() || parser.isBlank()) {
+                tasksFinished = true;
+                return false;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pending = true;
+        return true;
+    }
+
+    @Override
+    public Task next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        pending = false;
+        return toTask(parser, 0);
+    }
+
+    public List<Integer> readHistory() {
+        while (hasNext()) {
+            pending = false;
+        }
+        List<Integer> history = new ArrayList<>();
+        try {
+            if (parser.nextRecord() && !parser.isBlank()) {
+                for (int field = 0; field < parser.fieldCount(); field++) {
+                    history.add(parser.integer(field));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return history;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+
+    public static Task parse(String line) {
+        CsvParser parser = new CsvParser(new StringReader(line));
+        try {
+            parser.nextRecord();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return toTask(parser, 0);
+    }
+
+    static Task toTask(CsvParser parser, int offset) {
+        int id = parser.integer(offset);
+        TaskType taskType = parser.constant(offset + 1, TaskType.values());
+        String name = parser.text(offset + 2);
+        Status status = parser.constant(offset + 3, Status.values());
+        String description = parser.text(offset + 4);
+        long startMinute = parser.epochMinute(offset + 5);
+        long endMinute = parser.epochMinute(offset + 6);
+        long duration = parser.number(offset + 7);
+        Task task;
+        switch (taskType) {
+            case EPIC:
+                Epic epic = new Epic(name, description, id, status, null, duration, null);
+                epic.setEndMinute(endMinute);
+                task = epic;
+                break;
+            case SUBTASK:
+                task = new Subtask(name, description, id, status, parser.integer(offset + 8), null, duration);
+                break;
+            default:
+                task = new Task(name, description, id, status, null, duration);
+        }
+        task.setStartMinute(startMinute);
+        return task;
+    }
+}
@@ -0,0 +1,145 @@
+package controllers;
+
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+
+/**
+ * Потоковая запись задач в CSV. Поля пишутся прямо в Writer, без сборки строки на каждую задачу,
+ * поэтому выгрузка не держит в памяти ничего, кроме буфера самого Writer. Название и описание
+ * с запятыми, кавычками или переводами строк берутся в кавычки, кавычки внутри удваиваются.
+ */
+public final class CsvTaskWriter {
+
+    public static final String HEADER = "id,type,name,status,description,startTime,endTime,duration,epic";
+
+    private static final String NULL = "null";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer writer;
+    private final char[] digits = new char[20];
+
+    public CsvTaskWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public void writeHeader() throws IOException {
+        writer.write(HEADER);
+        writer.write(LINE_SEPARATOR);
+    }
+
+    public void write(Task task) throws IOException {
+        writeRow(task);
+        writer.write(LINE_SEPARATOR);
+    }
+
+    public void writeAll(Iterable<? extends Task> tasks) throws IOException {
+        for (Task task : tasks) {
+            write(task);
+        }
+    }
+
+    public void writeHistory(Iterable<? extends Task> history) throws IOException {
+        writer.write(LINE_SEPARATOR);
+        boolean first = true;
+        for (Task task : history) {
+            if (!first) {
+                writer.write(',');
+            }
+            writeNumber(task.getId());
+            first = false;
+        }
+    }
+
+    void writeRow(Task task) throws IOException {
+        writeNumber(task.getId());
+        writer.write(',');
+        writer.write(task.getTaskType().name());
+        writer.write(',');
+        writeText(task.getName());
+        writer.write(',');
+        writer.write(task.getStatus().name());
+        writer.write(',');
+        writeText(task.getDescription());
+        writer.write(',');
+        writeDateTime(task.getStartTime());
+        writer.write(',');
+        writeDateTime(task.getEndTime());
+        writer.write(',');
+        writeNumber(task.getDuration());
+        if (task.getTaskType() == TaskType.SUBTASK) {
+            writer.write(',');
+            writeNumber(((Subtask) task).getEpicId());
+        }
+    }
+
+    private void writeText(String text) throws IOException {
+        String value = String.valueOf(text);
+        if (!needsQuotes(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        int from = 0;
+        for (int quote = value.indexOf('"'); quote >= 0; quote = value.indexOf('"', from)) {
+            writer.write(value, from, quote + 1 - from);
+            writer.write('"');
+            from = quote + 1;
+        }
+        writer.write(value, from, value.length() - from);
+        writer.write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeDateTime(LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) {
+            writer.write(NULL);
+            return;
+        }
+        writeTwoDigits(dateTime.getDayOfMonth());
+        writer.write('.');
+        writeTwoDigits(dateTime.getMonthValue());
+        writer.write('.');
+        writeTwoDigits(Math.floorMod(dateTime.getYear(), 100));
+        writer.write(' ');
+        writeTwoDigits(dateTime.getHour());
+        writer.write(':');
+        writeTwoDigits(dateTime.getMinute());
+    }
+
+    private void writeTwoDigits(int value) throws IOException {
+        writer.write('0' + value / 10);
+        writer.write('0' + value % 10);
+    }
+
+    private void writeNumber(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            writer.write(Long.toString(value));
+            return;
+        }
+        boolean negative = value < 0;
+        long rest = Math.abs(value);
+        int position = digits.length;
+        do {
+            digits[--position] = (char) ('0' + rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        if (negative) {
+            digits[--position] = '-';
+        }
+        writer.write(digits, position, digits.length - position);
+    }
+}
@@ -4,15 +4,21 @@ import exceptions.ManagerSaveException;
 import model.*;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
-public class FileBackedTasksManager extends InMemoryTaskManager {
+public class FileBackedTasksManager extends InMemoryTaskManager implements AutoCloseable {
 
     public static void main(String[] args) {
         TaskManager fileBackedTasksManager = Managers.getDefaultFile();
@@ -50,54 +56,253 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
     }
 
     private final File File;
-    private static final String FIRST_LINE = "id,type,name,status,description,startTime,endTime,duration,epic";
+    private final File journalFile;
+    private final File historyFile;
+    private final SnapshotFormat format;
+    private final PersistenceMode mode;
+    private final int compactionThreshold;
+    private final FlushPolicy flushPolicy;
+    private final HistoryPersistence historyPersistence;
+    private final List<String> pendingRecords = new ArrayList<>();
+    private final StringWriter rowBuffer = new StringWriter();
+    private final CsvTaskWriter rowWriter = new CsvTaskWriter(rowBuffer);
+    private ScheduledExecutorService flushScheduler;
+    private ManagerSaveException flushFailure;
+    private int pendingOperations = 0;
+    private int journalSize = 0;
+    private boolean restoring = false;
+    private int transactionRecords;
+    private int transactionOperations;
+    private boolean saveDeferred;
+    private boolean historyDirty;
+    private boolean closed;
+    private static final String JOURNAL_SUFFIX = ".journal";
+    private static final String HISTORY_SUFFIX = ".history";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int DEFAULT_COMPACTION_THRESHOLD = 1000;
 
     public FileBackedTasksManager(File File) {
+        this(File, PersistenceMode.SNAPSHOT);
+    }
+
+    public FileBackedTasksManager(File File, PersistenceMode mode) {
+        this(File, mode, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    public FileBackedTasksManager(File File, PersistenceMode mode, int compactionThreshold) {
+        this(File, mode, compactionThreshold, FlushPolicy.immediate());
+    }
+
+    public FileBackedTasksManager(File File, PersistenceMode mode, FlushPolicy flushPolicy) {
+        this(File, mode, DEFAULT_COMPACTION_THRESHOLD, flushPolicy);
+    }
+
+    public FileBackedTasksManager(File File, PersistenceMode mode, int compactionThreshold, FlushPolicy flushPolicy) {
+        this(File, SnapshotFormat.CSV, mode, compactionThreshold, flushPolicy);
+    }
+
+    public FileBackedTasksManager(File File, SnapshotFormat format) {
+        this(File, format, PersistenceMode.SNAPSHOT, DEFAULT_COMPACTION_THRESHOLD, FlushPolicy.immediate());
+    }
+
+    public FileBackedTasksManager(File File, SnapshotFormat format, PersistenceMode mode, int compactionThreshold,
+                                  FlushPolicy flushPolicy) {
+        this(File, format, mode, compactionThreshold, flushPolicy, HistoryPersistence.WITH_OPERATIONS);
+    }
+
+    public FileBackedTasksManager(File File, SnapshotFormat format, PersistenceMode mode, int compactionThreshold,
+                                  FlushPolicy flushPolicy, HistoryPersistence historyPersistence) {
         this.File = File;
+        this.format = format;
+        this.journalFile = new File(File.getPath() + JOURNAL_SUFFIX);
+        this.historyFile = new File(File.getPath() + HISTORY_SUFFIX);
+        this.mode = mode;
+        this.compactionThreshold = compactionThreshold;
+        this.flushPolicy = flushPolicy;
+        this.historyPersistence = historyPersistence;
     }
 
     public static FileBackedTasksManager loadFromFile(File file) {
-        FileBackedTasksManager fileManager = new FileBackedTasksManager(file);
-        Map<Integer, Task> fileHistory = new HashMap<>();
-        List<Integer> idsHistory = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
-            List<String> taskLines = reader.lines().toList();
-            for (int i = 1; i < taskLines.size(); i++) {
-                if (taskLines.get(i).isEmpty() && !taskLines.get(i + 1).isEmpty()) {
-                    idsHistory = historyFromString(taskLines.get(i + 1));
-                    break;
+        return loadFromFile(file, PersistenceMode.SNAPSHOT);
+    }
+
+    public static FileBackedTasksManager loadFromFile(File file, PersistenceMode mode) {
+        return loadFromFile(file, mode, FlushPolicy.immediate());
+    }
+
+    public static FileBackedTasksManager loadFromFile(File file, PersistenceMode mode, FlushPolicy flushPolicy) {
+        return loadFromFile(file, mode, flushPolicy, HistoryPersistence.WITH_OPERATIONS);
+    }
+
+    public static FileBackedTasksManager loadFromFile(File file, PersistenceMode mode, FlushPolicy flushPolicy,
+                                                      HistoryPersistence historyPersistence) {
+        return load(file, mode, flushPolicy, historyPersistence, false);
+    }
+
+    public static FileBackedTasksManager loadFromMappedFile(File file) {
+        return loadFromMappedFile(file, PersistenceMode.SNAPSHOT, FlushPolicy.immediate());
+    }
+
+    public static FileBackedTasksManager loadFromMappedFile(File file, PersistenceMode mode, FlushPolicy flushPolicy) {
+        return load(file, mode, flushPolicy, HistoryPersistence.WITH_OPERATIONS, true);
+    }
+
+    private static FileBackedTasksManager load(File file, PersistenceMode mode, FlushPolicy flushPolicy,
+                                               HistoryPersistence historyPersistence, boolean mapped) {
+        SnapshotFormat format;
+        try {
+            format = BinarySnapshot.isBinary(file) ? SnapshotFormat.BINARY : SnapshotFormat.CSV;
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке данных из файла." + e.getMessage());
+        }
+        FileBackedTasksManager fileManager = new FileBackedTasksManager(file, format, mode,
+                DEFAULT_COMPACTION_THRESHOLD, flushPolicy, historyPersistence);
+        fileManager.restoring = true;
+        try {
+            if (mapped) {
+                ByteBuffer buffer = MappedSnapshot.map(file);
+                if (format == SnapshotFormat.BINARY) {
+                    BinarySnapshot.read(buffer, fileManager::restoreTask, fileManager::restoreHistory);
+                } else {
+                    fileManager.loadCsv(new CsvTaskReader(MappedSnapshot.reader(buffer)));
+                }
+            } else if (format == SnapshotFormat.BINARY) {
+                ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+                BinarySnapshot.read(buffer, fileManager::restoreTask, fileManager::restoreHistory);
+            } else {
+                try (CsvTaskReader reader = new CsvTaskReader(new FileReader(file, StandardCharsets.UTF_8))) {
+                    fileManager.loadCsv(reader);
+                }
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new ManagerSaveException("Ошибка при загрузке данных из файла." + e.getMessage());
+        }
+        fileManager.replayJournal();
+        fileManager.restoreHistoryFile();
+        fileManager.restoring = false;
+        return fileManager;
+    }
+
+    private void loadCsv(CsvTaskReader reader) {
+        while (reader.hasNext()) {
+            restoreTask(reader.next());
+        }
+        for (Integer id : reader.readHistory()) {
+            restoreHistory(id);
+        }
+    }
+
+    private void restoreTask(Task task) {
+        restore(task);
+        if (task.getId() > nextID) {
+            nextID = task.getId();
+        }
+    }
+
+    private void restoreHistory(int id) {
+        super.recordView(id);
+    }
+
+    private void replayJournal() {
+        if (!journalFile.exists()) {
+            return;
+        }
+        try (Reader reader = new FileReader(journalFile, StandardCharsets.UTF_8)) {
+            CsvParser parser = new CsvParser(reader);
+            while (parser.nextRecord()) {
+                if (!parser.isBlank()) {
+                    replay(parser);
+                    journalSize++;
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении журнала операций: " + e.getMessage());
+        }
+    }
+
+    private void restoreHistoryFile() {
+        if (!historyFile.exists()) {
+            return;
+        }
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(historyFile.toPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении истории просмотров: " + e.getMessage());
+        }
+        for (Task task : getHistory()) {
+            inMemoryHistoryManager.remove(task.getId());
+        }
+        if (!lines.isEmpty() && !lines.getFirst().isEmpty()) {
+            for (Integer id : historyFromString(lines.getFirst())) {
+                restoreHistory(id);
+            }
+        }
+    }
+
+    private void replay(CsvParser record) {
+        switch (record.constant(0, JournalOperation.values())) {
+            case PUT:
+                restoreTask(CsvTaskReader.toTask(record, 1));
+                break;
+            case REMOVE:
+                int id = record.integer(1);
+                if (tasks.containsKey(id)) {
+                    removeTaskById(id);
+                } else if (subtasks.containsKey(id)) {
+                    removeSubtaskById(id);
+                } else if (epics.containsKey(id)) {
+                    removeEpicById(id);
                 }
-                String[] line = taskLines.get(i).split(",");
-                Task task = fromString(line);
-                fileHistory.put(task.getId(), task);
-                switch (task.getTaskType()) {
+                break;
+            case CLEAR:
+                switch (record.constant(1, TaskType.values())) {
                     case TASK:
-                        fileManager.tasks.put(task.getId(), task);
-                        fileManager.prioritizedTasks.add(task);
+                        removeAllTasks();
                         break;
                     case EPIC:
-                        fileManager.epics.put(task.getId(), (Epic) task);
+                        removeAllEpics();
                         break;
                     case SUBTASK:
-                        fileManager.subtasks.put(task.getId(), (Subtask) task);
-                        int epicId = ((Subtask) task).getEpicId();
-                        List<Integer> subtaskIds = fileManager.epics.get(epicId).getSubtaskIds();
-                        subtaskIds.add(task.getId());
-                        fileManager.checkEpicStatus(epicId);
-                        fileManager.prioritizedTasks.add(task);
+                        removeAllSubtasks();
                         break;
                 }
-                if (task.getId() > fileManager.nextID) {
-                    fileManager.nextID = task.getId();
+                break;
+            case VIEW:
+                restoreHistory(record.integer(1));
+                break;
+        }
+    }
+
+    private void restore(Task task) {
+        int id = task.getId();
+        switch (task.getTaskType()) {
+            case TASK:
+                tasks.put(id, task);
+                statusIndex.put(task);
+                break;
+            case EPIC:
+                Epic epic = (Epic) task;
+                Epic oldEpic = epics.get(id);
+                if (oldEpic != null) {
+                    epic.resetAggregates(subtasksOf(oldEpic));
                 }
-            }
-            for (Integer id : idsHistory) {
-                fileManager.inMemoryHistoryManager.add(fileHistory.get(id));
-            }
-        } catch (IOException e) {
-            throw new ManagerSaveException("Ошибка при загрузке данных из файла." + e.getMessage());
+                epics.put(id, epic);
+                statusIndex.put(epic);
+                break;
+            case SUBTASK:
+                Subtask subtask = (Subtask) task;
+                Subtask oldSubtask = subtasks.put(id, subtask);
+                Epic subtaskEpic = epics.get(subtask.getEpicId());
+                if (oldSubtask != null) {
+                    subtaskEpic.updateSubtask(subtask);
+                } else {
+                    subtaskEpic.addSubtask(subtask);
+                }
+                statusIndex.put(subtask);
+                statusIndex.put(subtaskEpic);
+                break;
         }
-        return fileManager;
     }
 
     public static List<Integer> historyFromString(String value) {
@@ -109,185 +314,382 @@ public class FileBackedTasksManager extends InMemoryTaskManager {
         return idsHistory;
     }
 
-    public static Task fromString(String[] line) {
-        int id = Integer.parseInt(line[0]);
-        TaskType taskType = TaskType.valueOf(line[1]);
-        String name = line[2];
-        Status status = Status.valueOf(line[3]);
-        String description = line[4];
-        LocalDateTime startTime;
-        LocalDateTime endTime;
-        if (!line[5].equals("null")) {
-            startTime = LocalDateTime.parse(line[5], Task.formatter);
-            endTime = LocalDateTime.parse(line[6], Task.formatter);
-        } else {
-            startTime = null;
-            endTime = null;
+    public synchronized void save() {
+        if (isInTransaction()) {
+            saveDeferred = true;
+            return;
         }
-        long duration = Long.parseLong(line[7]);
-        switch (taskType) {
-            case TASK:
-                return new Task(name, description, id, status, startTime, duration);
-            case EPIC:
-                return new Epic(name, description, id, status, startTime, duration, endTime);
-            case SUBTASK:
-                int epicId = Integer.parseInt(line[8]);
-                return new Subtask(name, description, id, status, epicId, startTime, duration);
+        writeSnapshot(File, format);
+        if (journalFile.exists() && !journalFile.delete()) {
+            throw new ManagerSaveException("Ошибка при очистке журнала операций: " + journalFile.getPath());
+        }
+        if (historyFile.exists() && !historyFile.delete()) {
+            throw new ManagerSaveException("Ошибка при очистке истории просмотров: " + historyFile.getPath());
+        }
+        historyDirty = false;
+        journalSize = 0;
+        pendingRecords.clear();
+        pendingOperations = 0;
+    }
+
+    public synchronized void export(File file, SnapshotFormat format) {
+        writeSnapshot(file, format);
+    }
+
+    public synchronized void export(Writer writer) {
+        try {
+            writeCsv(writer);
+            writer.flush();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при выгрузке задач: " + e.getMessage());
         }
-        return null;
     }
 
-    public void save() {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(File, StandardCharsets.UTF_8))) {
-            writer.write(FIRST_LINE);
-            writer.newLine();
-            addTasksToFile(writer);
-            writer.newLine();
-            List<String> ids = new ArrayList<>();
-            for (Task task : getHistory()) {
-                ids.add(String.valueOf(task.getId()));
+    private void writeSnapshot(File file, SnapshotFormat format) {
+        File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+        try {
+            if (format == SnapshotFormat.BINARY) {
+                writeBinary(tempFile);
+            } else {
+                writeCsv(tempFile);
             }
-            writer.write(String.join(",", ids));
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
         } catch (IOException e) {
             throw new ManagerSaveException("Ошибка при сохранении задач: " + e.getMessage());
         }
     }
 
-    private void addTasksToFile(BufferedWriter writer) throws IOException {
-        for (Task task : getListOfTasks()) {
-            writer.write(toString(task));
-            writer.newLine();
+    private void writeCsv(File file) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
+            writeCsv(writer);
+        }
+    }
+
+    private void writeCsv(Writer writer) throws IOException {
+        CsvTaskWriter csvWriter = new CsvTaskWriter(writer);
+        csvWriter.writeHeader();
+        csvWriter.writeAll(tasks.values());
+        csvWriter.writeAll(epics.values());
+        csvWriter.writeAll(subtasks.values());
+        csvWriter.writeHistory(getHistory());
+    }
+
+    private void writeHistory() {
+        File tempFile = new File(historyFile.getPath() + TEMP_SUFFIX);
+        try {
+            Files.writeString(tempFile.toPath(), historyToString(), StandardCharsets.UTF_8);
+            Files.move(tempFile.toPath(), historyFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сохранении истории просмотров: " + e.getMessage());
+        }
+        historyDirty = false;
+    }
+
+    private String historyToString() {
+        List<String> ids = new ArrayList<>();
+        for (Task task : getHistory()) {
+            ids.add(String.valueOf(task.getId()));
+        }
+        return String.join(",", ids);
+    }
+
+    private void writeBinary(File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            BinarySnapshot.write(out, tasks.values(), epics.values(), subtasks.values(), getHistory());
+        }
+    }
+
+    public synchronized void flush() {
+        if (flushFailure != null) {
+            ManagerSaveException failure = flushFailure;
+            flushFailure = null;
+            throw failure;
+        }
+        if ((pendingOperations == 0 && !historyDirty) || isInTransaction()) {
+            return;
+        }
+        if (pendingOperations == 0) {
+            writeHistory();
+            return;
+        }
+        if (mode == PersistenceMode.SNAPSHOT) {
+            save();
+            return;
+        }
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(journalFile, StandardCharsets.UTF_8, true))) {
+            for (String record : pendingRecords) {
+                writer.write(record);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал операций: " + e.getMessage());
+        }
+        journalSize += pendingRecords.size();
+        pendingRecords.clear();
+        pendingOperations = 0;
+        if (journalSize >= compactionThreshold) {
+            save();
+        } else if (historyDirty) {
+            writeHistory();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            if (flushScheduler != null) {
+                flushScheduler.shutdown();
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Фоновая запись по таймеру запускается при первом несохранённом изменении, а не в конструкторе,
+     * чтобы поток не увидел недостроенный менеджер.
+     */
+    private void startFlushScheduler() {
+        if (flushScheduler != null || closed || flushPolicy.getKind() != FlushPolicy.Kind.EVERY_MILLIS) {
+            return;
+        }
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "file-backed-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::flushInBackground, flushPolicy.getValue(),
+                flushPolicy.getValue(), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void flushInBackground() {
+        try {
+            flush();
+        } catch (ManagerSaveException e) {
+            flushFailure = e;
+        }
+    }
+
+    private void persist(JournalOperation operation, String value) {
+        if (restoring) {
+            return;
         }
-        for (Epic epic : getListOfEpics()) {
-            writer.write(toString(epic));
-            writer.newLine();
+        record(operation, value);
+        flushIfDue();
+    }
+
+    private void record(JournalOperation operation, String value) {
+        if (mode == PersistenceMode.JOURNAL) {
+            pendingRecords.add(operation + "," + value);
         }
-        for (Subtask subtask : getListOfSubtasks()) {
-            writer.write(toString(subtask));
-            writer.newLine();
+        pendingOperations++;
+        startFlushScheduler();
+    }
+
+    @Override
+    public synchronized void beginTransaction() {
+        super.beginTransaction();
+        transactionRecords = pendingRecords.size();
+        transactionOperations = pendingOperations;
+    }
+
+    @Override
+    public synchronized void commit() {
+        super.commit();
+        if (saveDeferred) {
+            saveDeferred = false;
+            save();
+        } else {
+            flushIfDue();
         }
     }
 
-    private String toString(Task task) {
-        return task.getId() + "," + task.getTaskType() + "," + task.getName() + "," + task.getStatus() + "," +
-                task.getDescription() + "," + task.getStartTimeString() + "," + task.getEndTimeString() + "," +
-                task.getDuration();
+    @Override
+    public synchronized void rollback() {
+        super.rollback();
+        pendingRecords.subList(transactionRecords, pendingRecords.size()).clear();
+        pendingOperations = transactionOperations;
+        saveDeferred = false;
+        historyDirty = historyPersistence == HistoryPersistence.ON_FLUSH;
+    }
+
+    @Override
+    public synchronized void inTransaction(Runnable work) {
+        super.inTransaction(work);
+    }
+
+    private void flushIfDue() {
+        FlushPolicy.Kind kind = flushPolicy.getKind();
+        if (kind == FlushPolicy.Kind.IMMEDIATE
+                || (kind == FlushPolicy.Kind.EVERY_OPERATIONS && pendingOperations >= flushPolicy.getValue())) {
+            flush();
+        }
     }
 
-    private String toString(Epic epic) {
-        return epic.getId() + "," + epic.getTaskType() + "," + epic.getName() + "," + epic.getStatus() + "," +
-                epic.getDescription() + "," + epic.getStartTimeString() + "," + epic.getEndTimeString() + "," +
-                epic.getDuration();
+    private void persistViewed(Task task) {
+        if (task == null || restoring) {
+            return;
+        }
+        if (historyPersistence == HistoryPersistence.ON_FLUSH) {
+            historyDirty = true;
+            startFlushScheduler();
+        } else {
+            persist(JournalOperation.VIEW, String.valueOf(task.getId()));
+        }
     }
 
-    private String toString(Subtask subtask) {
-        return subtask.getId() + "," + subtask.getTaskType() + "," + subtask.getName() + "," + subtask.getStatus() +
-                "," + subtask.getDescription() + "," + subtask.getStartTimeString() + "," + subtask.getEndTimeString() +
-                "," + subtask.getDuration() + "," + subtask.getEpicId();
+    private String toRow(Task task) {
+        rowBuffer.getBuffer().setLength(0);
+        try {
+            rowWriter.writeRow(task);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rowBuffer.toString();
     }
 
     @Override
-    public void addTask(Task newTask) {
+    public synchronized void addTask(Task newTask) {
         super.addTask(newTask);
-        save();
+        persist(JournalOperation.PUT, toRow(newTask));
     }
 
     @Override
-    public void addSubtask(Subtask newSubtask) {
+    public synchronized void addSubtask(Subtask newSubtask) {
         super.addSubtask(newSubtask);
-        save();
+        persist(JournalOperation.PUT, toRow(newSubtask));
     }
 
     @Override
-    public void addEpic(Epic newEpic) {
+    public synchronized void addEpic(Epic newEpic) {
         super.addEpic(newEpic);
-        save();
+        persist(JournalOperation.PUT, toRow(newEpic));
+    }
+
+    @Override
+    public synchronized void addAll(Collection<? extends Task> newTasks) {
+        super.addAll(newTasks);
+        for (Task newTask : newTasks) {
+            record(JournalOperation.PUT, toRow(newTask));
+        }
+        flushIfDue();
+    }
+
+    @Override
+    public synchronized void updateAll(Collection<? extends Task> updatedTasks) {
+        super.updateAll(updatedTasks);
+        for (Task updatedTask : updatedTasks) {
+            record(JournalOperation.PUT, toRow(updatedTask));
+        }
+        flushIfDue();
     }
 
     @Override
-    public void removeAllTasks() {
+    public synchronized void removeAll(Collection<Integer> ids) {
+        super.removeAll(ids);
+        for (Integer id : ids) {
+            record(JournalOperation.REMOVE, String.valueOf(id));
+        }
+        flushIfDue();
+    }
+
+    @Override
+    public synchronized void removeAllTasks() {
         super.removeAllTasks();
-        save();
+        persist(JournalOperation.CLEAR, TaskType.TASK.name());
     }
 
     @Override
-    public void removeAllSubtasks() {
+    public synchronized void removeAllSubtasks() {
         super.removeAllSubtasks();
-        save();
+        persist(JournalOperation.CLEAR, TaskType.SUBTASK.name());
     }
 
     @Override
-    public void removeAllEpics() {
+    public synchronized void removeAllEpics() {
         super.removeAllEpics();
-        save();
+        persist(JournalOperation.CLEAR, TaskType.EPIC.name());
     }
 
     @Override
-    public Task getTaskById(int id) {
+    public synchronized Task getTaskById(int id) {
         Task task = super.getTaskById(id);
-        save();
+        persistViewed(task);
         return task;
     }
 
     @Override
-    public Epic getEpicById(int id) {
+    public synchronized Epic getEpicById(int id) {
         Epic epic = super.getEpicById(id);
-        save();
+        persistViewed(epic);
         return epic;
     }
 
     @Override
-    public Subtask getSubtaskById(int id) {
+    public synchronized Task findTask(int id) {
+        return super.findTask(id);
+    }
+
+    @Override
+    public synchronized void recordView(int id) {
+        super.recordView(id);
+        persistViewed(findTask(id));
+    }
+
+    @Override
+    public synchronized Subtask getSubtaskById(int id) {
         Subtask subtask = super.getSubtaskById(id);
-        save();
+        persistViewed(subtask);
         return subtask;
     }
 
     @Override
-    public void removeTaskById(int id) {
+    public synchronized void removeTaskById(int id) {
         super.removeTaskById(id);
-        save();
+        persist(JournalOperation.REMOVE, String.valueOf(id));
     }
 
     @Override
-    public void removeEpicById(int epicId) {
+    public synchronized void removeEpicById(int epicId) {
         super.removeEpicById(epicId);
-        save();
+        persist(JournalOperation.REMOVE, String.valueOf(epicId));
     }
 
     @Override
-    public void removeSubtaskById(int subtaskIdForRemove) {
+    public synchronized void removeSubtaskById(int subtaskIdForRemove) {
         super.removeSubtaskById(subtaskIdForRemove);
-        save();
+        persist(JournalOperation.REMOVE, String.valueOf(subtaskIdForRemove));
     }
 
     @Override
-    public void updateTask(Task updateTask) {
+    public synchronized void updateTask(Task updateTask) {
         super.updateTask(updateTask);
-        save();
+        persist(JournalOperation.PUT, toRow(updateTask));
     }
 
     @Override
-    public void updateEpic(Epic updateEpic) {
+    public synchronized void updateEpic(Epic updateEpic) {
         super.updateEpic(updateEpic);
-        save();
+        persist(JournalOperation.PUT, toRow(updateEpic));
     }
 
     @Override
-    public void updateSubtask(Subtask updateSubtask) {
+    public synchronized void updateSubtask(Subtask updateSubtask) {
         super.updateSubtask(updateSubtask);
-        save();
+        persist(JournalOperation.PUT, toRow(updateSubtask));
     }
 
     @Override
-    public void checkEpicStatus(int epicId) {
+    public synchronized void checkEpicStatus(int epicId) {
         super.checkEpicStatus(epicId);
-        save();
+        persist(JournalOperation.PUT, toRow(epics.get(epicId)));
     }
 
     @Override
-    public void setEpicDateTime(int epicId) {
+    public synchronized void setEpicDateTime(int epicId) {
         super.setEpicDateTime(epicId);
-        save();
+        persist(JournalOperation.PUT, toRow(epics.get(epicId)));
     }
 }
@@ -0,0 +1,58 @@
+package controllers;
+
+/**
+ * Политика сброса изменений FileBackedTasksManager на диск.
+ * Гарантии ниже относятся к падению процесса: данные считаются сохранёнными, когда они переданы
+ * операционной системе. Снимок всегда заменяется целиком, поэтому частично записанного файла не бывает.
+ */
+public final class FlushPolicy {
+
+    public enum Kind {
+        /** Каждая операция записывается до возврата из метода. Потерь нет. */
+        IMMEDIATE,
+        /** Запись после каждых N операций. Теряется не больше N - 1 последних операций. */
+        EVERY_OPERATIONS,
+        /** Фоновая запись раз в T мс, если были изменения. Теряются операции за последние T мс. */
+        EVERY_MILLIS,
+        /** Запись только при вызове flush() или close(). Теряется всё, что не было сброшено явно. */
+        MANUAL
+    }
+
+    private final Kind kind;
+    private final long value;
+
+    private FlushPolicy(Kind kind, long value) {
+        this.kind = kind;
+        this.value = value;
+    }
+
+    public static FlushPolicy immediate() {
+        return new FlushPolicy(Kind.IMMEDIATE, 1);
+    }
+
+    public static FlushPolicy everyOperations(int operations) {
+        if (operations < 1) {
+            throw new IllegalArgumentException("Количество операций должно быть положительным: " + operations);
+        }
+        return new FlushPolicy(Kind.EVERY_OPERATIONS, operations);
+    }
+
+    public static FlushPolicy everyMillis(long millis) {
+        if (millis < 1) {
+            throw new IllegalArgumentException("Интервал должен быть положительным: " + millis);
+        }
+        return new FlushPolicy(Kind.EVERY_MILLIS, millis);
+    }
+
+    public static FlushPolicy manual() {
+        return new FlushPolicy(Kind.MANUAL, 0);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public long getValue() {
+        return value;
+    }
+}
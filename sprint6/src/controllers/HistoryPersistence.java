@@ -0,0 +1,8 @@
+package controllers;
+
+public enum HistoryPersistence {
+    /** Каждый просмотр — отдельная операция: попадает в журнал и учитывается политикой сброса. */
+    WITH_OPERATIONS,
+    /** Просмотры не пишут на диск. История целиком сохраняется в отдельный файл при flush() и close(). */
+    ON_FLUSH
+}
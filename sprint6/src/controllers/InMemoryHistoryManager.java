@@ -3,12 +3,21 @@ package controllers;
 import model.Task;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class InMemoryHistoryManager implements HistoryManager {
-    final private CustomLinkedList history = new CustomLinkedList();
+    final private CustomLinkedList history;
+
+    public InMemoryHistoryManager() {
+        this(Integer.MAX_VALUE);
+    }
+
+    public InMemoryHistoryManager(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Размер истории должен быть положительным: " + capacity);
+        }
+        history = new CustomLinkedList(capacity);
+    }
 
     @Override
     public List<Task> getHistory() {
@@ -25,6 +34,22 @@ public class InMemoryHistoryManager implements HistoryManager {
         history.removeNode(id);
     }
 
+    public int getSize() {
+        return history.size;
+    }
+
+    public int getCapacity() {
+        return history.capacity;
+    }
+
+    public long getEvictionCount() {
+        return history.evictions;
+    }
+
+    public int getIndexSize() {
+        return history.idNode.size();
+    }
+
     private static class CustomLinkedList {
 
         private static class Node<T> {
@@ -41,13 +66,18 @@ public class InMemoryHistoryManager implements HistoryManager {
 
         private Node<Task> head;
         private Node<Task> tail;
+        private int size;
+        private long evictions;
+        final private int capacity;
 
-        final private Map<Integer, CustomLinkedList.Node<Task>> idNode = new HashMap<>();
+        final private IntKeyMap<CustomLinkedList.Node<Task>> idNode = new IntKeyMap<>();
+
+        private CustomLinkedList(int capacity) {
+            this.capacity = capacity;
+        }
 
         public void linkLast(Task task) {
-            if (idNode.containsKey(task.getId())) {
-                removeNode(idNode.get(task.getId()));
-            }
+            removeNode(task.getId());
             final Node<Task> oldTail = tail;
             final Node<Task> newNode = new Node<>(oldTail, task, null);
             tail = newNode;
@@ -57,9 +87,16 @@ public class InMemoryHistoryManager implements HistoryManager {
                 oldTail.next = newNode;
             }
             idNode.put(task.getId(), newNode);
+            size++;
+            if (size > capacity) {
+                removeNode(head);
+                evictions++;
+            }
         }
 
         private void removeNode(Node<Task> node) {
+            idNode.remove(node.task.getId());
+            size--;
             final Node<Task> prev = node.prev;
             final Node<Task> next = node.next;
             if (prev == null) {
@@ -78,13 +115,14 @@ public class InMemoryHistoryManager implements HistoryManager {
         }
 
         private void removeNode (int id) {
-            if (idNode.containsKey(id)) {
-                removeNode(idNode.get(id));
+            Node<Task> node = idNode.get(id);
+            if (node != null) {
+                removeNode(node);
             }
         }
 
         private List<Task> getTasks() {
-            List<Task> tasks = new ArrayList<>();
+            List<Task> tasks = new ArrayList<>(size);
             for (Node<Task> node = head; node != null; node = node.next) {
                 tasks.add(node.task);
             }
@@ -1,9 +1,11 @@
 package controllers;
 
 import model.Epic;
+import model.EpochMinutes;
 import model.Status;
 import model.Task;
 import model.Subtask;
+import model.TaskType;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -11,86 +13,254 @@ import exceptions.CollisionTaskException;
 
 public class InMemoryTaskManager implements TaskManager {
 
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final HistoryManager inMemoryHistoryManager = Managers.getDefaultHistory();
+    protected final TaskStore store;
+    protected final StoreMap<Task> tasks;
+    protected final StoreMap<Subtask> subtasks;
+    protected final StoreMap<Epic> epics;
+    protected final HistoryManager inMemoryHistoryManager;
+    final StatusIndex statusIndex;
 
     protected int nextID = 0;
 
-    private final Comparator<Task> comparator = Comparator.comparing(Task::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()))
-            .thenComparing(Task::getId);
+    private static final Comparator<Task> batchOrder = Comparator.comparingLong(Task::getStartMinute)
+            .thenComparingLong(Task::getEndMinute);
 
-    protected Set<Task> prioritizedTasks = new TreeSet<>(comparator);
+    private static final String COLLISION_MESSAGE = "Время выполнения задачи пересекается со временем уже " +
+            "существующей задачи. Выберите другую дату.";
+
+    protected final NavigableSet<Task> prioritizedTasks;
+
+    private final NavigableSet<Task> prioritizedTasksView;
+
+    private Transaction transaction;
+
+    public InMemoryTaskManager() {
+        this(new InMemoryTaskStore());
+    }
+
+    public InMemoryTaskManager(TaskStore store) {
+        this(store, Managers.getDefaultHistory(), new StatusIndex(false, store.offHeap()));
+    }
+
+    protected InMemoryTaskManager(TaskStore store, HistoryManager historyManager, StatusIndex statusIndex) {
+        this.store = store;
+        this.tasks = new StoreMap<>(store, TaskType.TASK);
+        this.subtasks = new StoreMap<>(store, TaskType.SUBTASK);
+        this.epics = new StoreMap<>(store, TaskType.EPIC);
+        this.prioritizedTasks = store.byStartTime();
+        this.prioritizedTasksView = Collections.unmodifiableNavigableSet(prioritizedTasks);
+        this.inMemoryHistoryManager = historyManager;
+        this.statusIndex = statusIndex;
+        indexStoredTasks();
+    }
+
+    /**
+     * Хранилище может прийти уже заполненным, например после чтения журнала. Рассчитанные поля эпиков
+     * в нём не сохраняются, поэтому эпики собираются заново по своим подзадачам.
+     */
+    private void indexStoredTasks() {
+        Map<Integer, List<Subtask>> subtasksByEpic = new HashMap<>();
+        for (Subtask subtask : subtasks.values()) {
+            subtasksByEpic.computeIfAbsent(subtask.getEpicId(), epicId -> new ArrayList<>()).add(subtask);
+            statusIndex.put(subtask);
+            nextID = Math.max(nextID, subtask.getId());
+        }
+        for (Task task : tasks.values()) {
+            statusIndex.put(task);
+            nextID = Math.max(nextID, task.getId());
+        }
+        for (Epic epic : epics.values()) {
+            epic.clearSubtasks();
+            epic.addSubtasks(subtasksByEpic.getOrDefault(epic.getId(), List.of()));
+            statusIndex.put(epic);
+            nextID = Math.max(nextID, epic.getId());
+        }
+    }
+
+    protected int generateId() {
+        return ++nextID;
+    }
 
     @Override
     public void addTask(Task newTask) {
         validate(newTask);
-        int taskId = ++nextID;
-        newTask.setId(taskId);
-        tasks.put(taskId, newTask);
-        prioritizedTasks.add(newTask);
+        insert(newTask);
     }
 
     @Override
     public void addSubtask(Subtask newSubtask) {
         validate(newSubtask);
-        int newSubtaskId = ++nextID;
-        newSubtask.setId(newSubtaskId);
-        subtasks.put(newSubtaskId, newSubtask);
-        int epicId = newSubtask.getEpicId();
-        List<Integer> subtaskIds = epics.get(epicId).getSubtaskIds();
-        subtaskIds.add(newSubtaskId);
-        checkEpicStatus(epicId);
-        setEpicDateTime(epicId);
-        prioritizedTasks.add(newSubtask);
+        insert(newSubtask);
+        Epic epic = epics.get(newSubtask.getEpicId());
+        epic.addSubtask(newSubtask);
+        statusIndex.put(epic);
     }
 
     @Override
     public void addEpic(Epic newEpic) {
-        int epicId = ++nextID;
-        newEpic.setId(epicId);
-        epics.put(epicId, newEpic);
+        insert(newEpic);
+    }
+
+    @Override
+    public void addAll(Collection<? extends Task> newTasks) {
+        validateAll(newTasks, false);
+        Map<Integer, List<Subtask>> subtasksByEpic = new HashMap<>();
+        for (Task newTask : newTasks) {
+            insert(newTask);
+            if (newTask.getTaskType() == TaskType.SUBTASK) {
+                Subtask subtask = (Subtask) newTask;
+                subtasksByEpic.computeIfAbsent(subtask.getEpicId(), epicId -> new ArrayList<>()).add(subtask);
+            }
+        }
+        subtasksByEpic.forEach((epicId, epicSubtasks) -> {
+            Epic epic = epics.get(epicId);
+            epic.addSubtasks(epicSubtasks);
+            statusIndex.put(epic);
+        });
+    }
+
+    @Override
+    public void updateAll(Collection<? extends Task> updatedTasks) {
+        validateAll(updatedTasks, true);
+        Map<Integer, List<Subtask>> subtasksByEpic = new HashMap<>();
+        for (Task updatedTask : updatedTasks) {
+            switch (updatedTask.getTaskType()) {
+                case TASK:
+                    tasks.put(updatedTask.getId(), updatedTask);
+                    statusIndex.put(updatedTask);
+                    break;
+                case EPIC:
+                    replaceEpic((Epic) updatedTask);
+                    break;
+                case SUBTASK:
+                    Subtask subtask = (Subtask) updatedTask;
+                    subtasks.put(subtask.getId(), subtask);
+                    statusIndex.put(subtask);
+                    subtasksByEpic.computeIfAbsent(subtask.getEpicId(), epicId -> new ArrayList<>()).add(subtask);
+                    break;
+            }
+        }
+        subtasksByEpic.forEach((epicId, epicSubtasks) -> {
+            Epic epic = epics.get(epicId);
+            epic.updateSubtasks(epicSubtasks);
+            statusIndex.put(epic);
+        });
+    }
+
+    @Override
+    public void removeAll(Collection<Integer> ids) {
+        Map<Integer, List<Subtask>> subtasksByEpic = new HashMap<>();
+        for (int id : ids) {
+            Task task = tasks.remove(id);
+            if (task != null) {
+                unschedule(task);
+                continue;
+            }
+            Subtask subtask = subtasks.remove(id);
+            if (subtask != null) {
+                unschedule(subtask);
+                subtasksByEpic.computeIfAbsent(subtask.getEpicId(), epicId -> new ArrayList<>()).add(subtask);
+                continue;
+            }
+            if (epics.containsKey(id)) {
+                removeEpic(id);
+            }
+        }
+        subtasksByEpic.forEach((epicId, epicSubtasks) -> {
+            Epic epic = epics.get(epicId);
+            if (epic != null) {
+                epic.removeSubtasks(epicSubtasks);
+                statusIndex.put(epic);
+            }
+        });
+    }
+
+    private void insert(Task newTask) {
+        int id = generateId();
+        newTask.setId(id);
+        switch (newTask.getTaskType()) {
+            case TASK:
+                tasks.put(id, newTask);
+                break;
+            case EPIC:
+                epics.put(id, (Epic) newTask);
+                break;
+            case SUBTASK:
+                subtasks.put(id, (Subtask) newTask);
+                break;
+        }
+        statusIndex.put(newTask);
+    }
+
+    private void unschedule(Task task) {
+        statusIndex.remove(task);
+        inMemoryHistoryManager.remove(task.getId());
+    }
+
+    private void validateAll(Collection<? extends Task> batch, boolean replacing) {
+        List<Task> scheduled = new ArrayList<>();
+        Set<Integer> replacedIds = new HashSet<>();
+        for (Task task : batch) {
+            if (task.getTaskType() == TaskType.EPIC) {
+                continue;
+            }
+            if (task.getTaskType() == TaskType.SUBTASK && !epics.containsKey(((Subtask) task).getEpicId())) {
+                throw new IllegalArgumentException("Эпик подзадачи не найден: " + ((Subtask) task).getEpicId());
+            }
+            if (replacing) {
+                replacedIds.add(task.getId());
+            }
+            if (task.getStartMinute() != EpochMinutes.NONE) {
+                scheduled.add(task);
+            }
+        }
+        scheduled.sort(batchOrder);
+        long latestEndMinute = Long.MIN_VALUE;
+        for (Task task : scheduled) {
+            if (latestEndMinute > task.getStartMinute()) {
+                throw new CollisionTaskException(COLLISION_MESSAGE);
+            }
+            latestEndMinute = Math.max(latestEndMinute, task.getEndMinute());
+            validate(task, replacedIds);
+        }
     }
 
     @Override
     public void removeAllTasks() {
-        for (Integer id : tasks.keySet()) {
-            inMemoryHistoryManager.remove(id);
-            prioritizedTasks.remove(tasks.get(id));
+        for (Task task : tasks.values()) {
+            inMemoryHistoryManager.remove(task.getId());
         }
         tasks.clear();
+        statusIndex.clear(TaskType.TASK);
     }
 
     @Override
     public void removeAllSubtasks() {
         for (Epic epic : epics.values()) {
-            epic.getSubtaskIds().clear();
-            checkEpicStatus(epic.getId());
-            setEpicDateTime(epic.getId());
+            epic.clearSubtasks();
+            statusIndex.put(epic);
         }
-        for (Integer id : subtasks.keySet()) {
-            inMemoryHistoryManager.remove(id);
-            prioritizedTasks.remove(subtasks.get(id));
+        for (Subtask subtask : subtasks.values()) {
+            inMemoryHistoryManager.remove(subtask.getId());
         }
         subtasks.clear();
+        statusIndex.clear(TaskType.SUBTASK);
     }
 
     @Override
     public void removeAllEpics() {
         for (Epic epic : epics.values()) {
-            int epicId = epic.getId();
-            List<Integer> subtaskIds = epics.get(epicId).getSubtaskIds();
-            for (Integer subtaskId : subtaskIds) {
-                prioritizedTasks.remove(subtasks.get(subtaskId));
+            epic.forEachSubtaskId(subtaskId -> {
                 subtasks.remove(subtaskId);
                 inMemoryHistoryManager.remove(subtaskId);
-            }
+            });
         }
-        for (Integer id : epics.keySet()) {
-            inMemoryHistoryManager.remove(id);
+        for (Epic epic : epics.values()) {
+            inMemoryHistoryManager.remove(epic.getId());
         }
         epics.clear();
+        statusIndex.clear(TaskType.SUBTASK);
+        statusIndex.clear(TaskType.EPIC);
     }
 
     @Override
@@ -136,45 +306,92 @@ public class InMemoryTaskManager implements TaskManager {
     }
 
     @Override
-    public List<Subtask> getListOfSubtasksByOneEpic(int id) {
-        List<Integer> subtaskIds = epics.get(id).getSubtaskIds();
-        List<Subtask> subtasksByOneEpic = new ArrayList<>();
-        for (int subtaskId : subtaskIds) {
-            subtasksByOneEpic.add(subtasks.get(subtaskId));
+    public void recordView(int id) {
+        Task task = findTask(id);
+        if (task != null) {
+            inMemoryHistoryManager.add(task);
         }
-        return subtasksByOneEpic;
+    }
+
+    @Override
+    public Task findTask(int id) {
+        Task task = tasks.get(id);
+        if (task == null) {
+            task = subtasks.get(id);
+        }
+        if (task == null) {
+            task = epics.get(id);
+        }
+        return task;
+    }
+
+    @Override
+    public List<Subtask> getListOfSubtasksByOneEpic(int id) {
+        return subtasksOf(epics.get(id));
+    }
+
+    /**
+     * Эпик хранит только id подзадач, сами подзадачи берутся из хранилища в порядке добавления.
+     */
+    protected List<Subtask> subtasksOf(Epic epic) {
+        List<Subtask> result = new ArrayList<>();
+        epic.forEachSubtaskId(subtaskId -> {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                result.add(subtask);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public List<Task> getListOfTasksByStatus(Status status) {
+        return statusIndex.get(store, status);
+    }
+
+    @Override
+    public List<Task> getListOfTasksByType(TaskType type) {
+        return statusIndex.get(store, type);
+    }
+
+    @Override
+    public List<Task> getListOfTasksByTypeAndStatus(TaskType type, Status status) {
+        return statusIndex.get(store, type, status);
     }
 
     @Override
     public void removeTaskById(int id) {
-        if (tasks.containsKey(id)) {
-            prioritizedTasks.removeIf(task -> task.getId() == id);
-            tasks.remove(id);
+        Task task = tasks.remove(id);
+        if (task != null) {
+            statusIndex.remove(task);
             inMemoryHistoryManager.remove(id);
         }
     }
 
     @Override
     public void removeEpicById(int epicId) {
-        List<Integer> subtaskIds = epics.get(epicId).getSubtaskIds();
-        for (Integer subtaskId : subtaskIds) {
-            prioritizedTasks.remove(subtasks.get(subtaskId));
-            subtasks.remove(subtaskId);
+        removeEpic(epicId);
+    }
+
+    private void removeEpic(int epicId) {
+        epics.get(epicId).forEachSubtaskId(subtaskId -> {
+            Subtask subtask = subtasks.remove(subtaskId);
+            if (subtask != null) {
+                statusIndex.remove(subtask);
+            }
             inMemoryHistoryManager.remove(subtaskId);
-        }
-        epics.remove(epicId);
+        });
+        statusIndex.remove(epics.remove(epicId));
         inMemoryHistoryManager.remove(epicId);
     }
 
     @Override
     public void removeSubtaskById(int subtaskIdForRemove) {
-        prioritizedTasks.remove(subtasks.get(subtaskIdForRemove));
-        int epicId = subtasks.get(subtaskIdForRemove).getEpicId();
-        List<Integer> subtaskIds = epics.get(epicId).getSubtaskIds();
-        subtaskIds.remove((Integer) subtaskIdForRemove);
-        subtasks.remove(subtaskIdForRemove);
-        checkEpicStatus(epicId);
-        setEpicDateTime(epicId);
+        Subtask subtask = subtasks.remove(subtaskIdForRemove);
+        statusIndex.remove(subtask);
+        Epic epic = epics.get(subtask.getEpicId());
+        epic.removeSubtask(subtask);
+        statusIndex.put(epic);
         inMemoryHistoryManager.remove(subtaskIdForRemove);
     }
 
@@ -182,47 +399,44 @@ public class InMemoryTaskManager implements TaskManager {
     public void updateTask(Task updateTask) {
         int id = updateTask.getId();
         validate(updateTask);
-        prioritizedTasks.remove(tasks.get(id));
         tasks.put(id, updateTask);
-        prioritizedTasks.add(updateTask);
+        statusIndex.put(updateTask);
     }
 
     @Override
     public void updateEpic(Epic updateEpic) {
+        replaceEpic(updateEpic);
+    }
+
+    private void replaceEpic(Epic updateEpic) {
+        List<Subtask> epicSubtasks = new ArrayList<>();
+        updateEpic.forEachSubtaskId(subtaskId -> {
+            Subtask subtask = subtasks.get(subtaskId);
+            if (subtask != null) {
+                epicSubtasks.add(subtask);
+            }
+        });
+        updateEpic.resetAggregates(epicSubtasks);
         epics.put(updateEpic.getId(), updateEpic);
+        statusIndex.put(updateEpic);
     }
 
     @Override
     public void updateSubtask(Subtask updateSubtask) {
         int id = updateSubtask.getId();
         validate(updateSubtask);
-        prioritizedTasks.remove(subtasks.get(id));
         subtasks.put(id, updateSubtask);
-        int epicId = subtasks.get(id).getEpicId();
-        checkEpicStatus(epicId);
-        setEpicDateTime(epicId);
-        prioritizedTasks.add(updateSubtask);
+        Epic epic = epics.get(updateSubtask.getEpicId());
+        epic.updateSubtask(updateSubtask);
+        statusIndex.put(updateSubtask);
+        statusIndex.put(epic);
     }
 
     @Override
     public void checkEpicStatus(int epicId) {
-        int counterNEW = 0;
-        int counterDONE = 0;
-        List<Integer> subtaskIds = epics.get(epicId).getSubtaskIds();
-        for (Integer subtaskId : subtaskIds) {
-            if (subtasks.get(subtaskId).getStatus().equals(Status.NEW)) {
-                counterNEW++;
-            } else if (subtasks.get(subtaskId).getStatus().equals(Status.DONE)) {
-                counterDONE++;
-            }
-        }
-        if (subtaskIds.size() == counterNEW || subtaskIds.isEmpty()) {
-            epics.get(epicId).setStatus(Status.NEW);
-        } else if (subtaskIds.size() == counterDONE) {
-            epics.get(epicId).setStatus(Status.DONE);
-        } else {
-            epics.get(epicId).setStatus(Status.IN_PROGRESS);
-        }
+        Epic epic = epics.get(epicId);
+        epic.refreshStatus();
+        statusIndex.put(epic);
     }
 
     @Override
@@ -232,58 +446,262 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void setEpicDateTime(int epicId) {
-        List<Integer> subtaskIds = epics.get(epicId).getSubtaskIds();
-        if (subtaskIds.isEmpty()) {
-            epics.get(epicId).setDuration(0L);
-            epics.get(epicId).setStartTime(null);
-            epics.get(epicId).setEndTime(null);
+        epics.get(epicId).refreshDateTime();
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        return prioritizedTasks.stream().toList();
+    }
+
+    @Override
+    public NavigableSet<Task> getPrioritizedTasksView() {
+        return prioritizedTasksView;
+    }
+
+    @Override
+    public NavigableSet<Task> getPrioritizedTasksView(LocalDateTime from, LocalDateTime to) {
+        return Collections.unmodifiableNavigableSet(prioritizedTasks.subSet(startTimeBound(EpochMinutes.of(from)),
+                true, startTimeBound(EpochMinutes.of(to)), false));
+    }
+
+    @Override
+    public List<Task> getPrioritizedTasksPage(Task cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Размер страницы должен быть положительным: " + limit);
+        }
+        NavigableSet<Task> tail = cursor == null ? prioritizedTasks : prioritizedTasks.tailSet(cursor, false);
+        List<Task> page = new ArrayList<>(Math.min(limit, 64));
+        for (Task task : tail) {
+            if (page.size() >= limit) {
+                break;
+            }
+            page.add(task);
+        }
+        return page;
+    }
+
+    @Override
+    public List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        List<Task> result = new ArrayList<>();
+        long toMinute = EpochMinutes.of(to);
+        for (Task task = firstTaskEndingAfter(EpochMinutes.of(from)); isStartedBefore(task, toMinute);
+             task = prioritizedTasks.higher(task)) {
+            result.add(task);
+        }
+        return result;
+    }
+
+    @Override
+    public int countTasksInRange(LocalDateTime from, LocalDateTime to) {
+        checkRange(from, to);
+        int count = 0;
+        long toMinute = EpochMinutes.of(to);
+        for (Task task = firstTaskEndingAfter(EpochMinutes.of(from)); isStartedBefore(task, toMinute);
+             task = prioritizedTasks.higher(task)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public LocalDateTime getNextFreeSlot(long duration, LocalDateTime after) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Продолжительность не может быть отрицательной: " + duration);
+        }
+        long afterMinute = EpochMinutes.of(after);
+        long candidate = afterMinute;
+        for (Task task = firstTaskEndingAfter(afterMinute); isStartedBefore(task, candidate + duration);
+             task = prioritizedTasks.higher(task)) {
+            candidate = Math.max(candidate, task.getEndMinute());
+        }
+        return candidate == afterMinute ? after : EpochMinutes.toDateTime(candidate);
+    }
+
+    /**
+     * Первая по порядку задача, которая ещё не закончилась к моменту time. Задачи в расписании
+     * не пересекаются, поэтому среди начатых раньше time под это условие попадают только ближайшие.
+     */
+    private Task firstTaskEndingAfter(long minute) {
+        long firstStartMinute = minute;
+        int firstId = Integer.MIN_VALUE;
+        ScheduleCursor earlier = store.scheduleBefore(minute);
+        while (earlier.previous() && earlier.endMinute() > minute) {
+            firstStartMinute = earlier.startMinute();
+            firstId = earlier.id();
+        }
+        return prioritizedTasks.ceiling(startTimeBound(firstStartMinute, firstId));
+    }
+
+    private static boolean isStartedBefore(Task task, long minute) {
+        return task != null && task.getStartMinute() < minute;
+    }
+
+    private static void checkRange(LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Конец интервала раньше начала: " + from + " - " + to);
+        }
+    }
+
+    private static Task startTimeBound(long startMinute) {
+        return startTimeBound(startMinute, Integer.MIN_VALUE);
+    }
+
+    private static Task startTimeBound(long startMinute, int id) {
+        return InMemoryTaskStore.startTimeBound(startMinute, id);
+    }
+
+    @Override
+    public void validate(Task newTask) {
+        validate(newTask, Set.of());
+    }
+
+    private void validate(Task newTask, Set<Integer> replacedIds) {
+        long newStartMinute = newTask.getStartMinute();
+        if (newStartMinute == EpochMinutes.NONE) {
             return;
         }
-        LocalDateTime epicStartTime = null;
-        LocalDateTime epicEndTime = null;
-        long epicDuration = 0L;
-        for (Integer subtaskId : subtaskIds) {
-            Subtask subtask = subtasks.get(subtaskId);
-            LocalDateTime subtaskStartTime = subtask.getStartTime();
-            LocalDateTime subtaskEndTime = subtask.getEndTime();
-            if (subtaskStartTime != null) {
-                if (epicStartTime == null || subtaskStartTime.isBefore(epicStartTime)) {
-                    epicStartTime = subtaskStartTime;
-                }
+        ScheduleCursor existTask = store.scheduleBefore(newTask.getEndMinute());
+        long boundary = Long.MIN_VALUE;
+        while (existTask.previous()) {
+            long existStartMinute = existTask.startMinute();
+            if (existStartMinute < boundary) {
+                break;
             }
-            if (subtaskEndTime != null) {
-                if (epicEndTime == null || subtaskEndTime.isAfter(epicEndTime)) {
-                    epicEndTime = subtaskEndTime;
+            int existId = existTask.id();
+            if (newTask.getId() != existId && (replacedIds.isEmpty() || !replacedIds.contains(existId))) {
+                if (existTask.endMinute() > newStartMinute) {
+                    throw new CollisionTaskException(COLLISION_MESSAGE);
+                }
+                if (boundary == Long.MIN_VALUE) {
+                    boundary = existStartMinute;
                 }
             }
-            epicDuration += subtasks.get(subtaskId).getDuration();
         }
-        epics.get(epicId).setStartTime(epicStartTime);
-        epics.get(epicId).setEndTime(epicEndTime);
-        epics.get(epicId).setDuration(epicDuration);
     }
 
     @Override
-    public List<Task> getPrioritizedTasks() {
-        return prioritizedTasks.stream().toList();
+    public void beginTransaction() {
+        if (transaction != null) {
+            throw new IllegalStateException("Транзакция уже начата");
+        }
+        transaction = new Transaction();
     }
 
     @Override
-    public void validate(Task newTask) {
-        List<Task> prioritizedTasks = getPrioritizedTasks();
-        for (Task existTask : prioritizedTasks) {
-            if (newTask.getStartTime() == null || existTask.getStartTime() == null) {
-                return;
+    public void commit() {
+        checkTransaction();
+        transaction = null;
+    }
+
+    @Override
+    public void rollback() {
+        checkTransaction();
+        Transaction rolledBack = transaction;
+        transaction = null;
+        rolledBack.restore();
+    }
+
+    @Override
+    public void inTransaction(Runnable work) {
+        beginTransaction();
+        try {
+            work.run();
+        } catch (RuntimeException | Error e) {
+            rollback();
+            throw e;
+        }
+        commit();
+    }
+
+    protected boolean isInTransaction() {
+        return transaction != null;
+    }
+
+    private void checkTransaction() {
+        if (transaction == null) {
+            throw new IllegalStateException("Транзакция не начата");
+        }
+    }
+
+    /**
+     * Состояние менеджера на момент beginTransaction. Эпики изменяются на месте, поэтому для них
+     * дополнительно запоминаются состав подзадач и рассчитанные поля.
+     */
+    private class Transaction {
+        private final List<Task> savedTasks = new ArrayList<>(tasks.values());
+        private final List<Subtask> savedSubtasks = new ArrayList<>(subtasks.values());
+        private final List<Epic> savedEpics = new ArrayList<>(epics.values());
+        private final IntKeyMap<EpicState> epicStates = new IntKeyMap<>();
+        private final List<Task> savedHistory = inMemoryHistoryManager.getHistory();
+        private final int savedNextID = nextID;
+
+        private Transaction() {
+            for (Epic epic : epics.values()) {
+                epicStates.put(epic.getId(), new EpicState(epic));
             }
-            if (newTask.getId() == existTask.getId()) {
-                continue;
+        }
+
+        private void restore() {
+            for (Task task : inMemoryHistoryManager.getHistory()) {
+                inMemoryHistoryManager.remove(task.getId());
             }
-            if ((!newTask.getEndTime().isAfter(existTask.getStartTime())) ||
-                    (!newTask.getStartTime().isBefore(existTask.getEndTime()))) {
-                continue;
+            tasks.clear();
+            for (Task task : savedTasks) {
+                tasks.put(task.getId(), task);
+            }
+            subtasks.clear();
+            for (Subtask subtask : savedSubtasks) {
+                subtasks.put(subtask.getId(), subtask);
+            }
+            epics.clear();
+            for (Epic epic : savedEpics) {
+                epics.put(epic.getId(), epic);
+            }
+            statusIndex.clear();
+            for (Epic epic : epics.values()) {
+                epicStates.get(epic.getId()).restore(epic);
+                statusIndex.put(epic);
+            }
+            tasks.values().forEach(statusIndex::put);
+            subtasks.values().forEach(statusIndex::put);
+            for (Task task : savedHistory) {
+                inMemoryHistoryManager.add(task);
+            }
+            nextID = savedNextID;
+        }
+
+        private class EpicState {
+            private final List<Integer> subtaskIds;
+            private final Status status;
+            private final long startMinute;
+            private final long endMinute;
+            private final long duration;
+
+            private EpicState(Epic epic) {
+                this.subtaskIds = epic.getSubtaskIds();
+                this.status = epic.getStatus();
+                this.startMinute = epic.getStartMinute();
+                this.endMinute = epic.getEndMinute();
+                this.duration = epic.getDuration();
+            }
+
+            private void restore(Epic epic) {
+                List<Subtask> epicSubtasks = new ArrayList<>();
+                for (int subtaskId : subtaskIds) {
+                    Subtask subtask = subtasks.get(subtaskId);
+                    if (subtask != null) {
+                        epicSubtasks.add(subtask);
+                    }
+                }
+                epic.clearSubtasks();
+                epic.addSubtasks(epicSubtasks);
+                epic.setStatus(status);
+                epic.setStartMinute(startMinute);
+                epic.setEndMinute(endMinute);
+                epic.setDuration(duration);
             }
-            throw new CollisionTaskException("Время выполнения задачи пересекается со временем уже существующей " +
-                    "задачи. Выберите другую дату.");
         }
     }
-}
\ No newline at end of file
+}
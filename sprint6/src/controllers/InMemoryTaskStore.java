@@ -0,0 +1,110 @@
+package controllers;
+
+import model.Task;
+import model.TaskType;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Хранилище в куче: по таблице IntKeyMap на тип и дерево по времени начала. Потокобезопасный вариант
+ * для ConcurrentTaskManager находится в ConcurrentTaskStore.
+ */
+public class InMemoryTaskStore implements TaskStore {
+
+    static final Comparator<Task> START_TIME_ORDER = Comparator.comparingLong(Task::getStartMinute)
+            .thenComparingInt(Task::getId);
+
+    /**
+     * Ключ для поиска в порядке по времени начала: задача-заглушка с нужными началом и id.
+     */
+    static Task startTimeBound(long startMinute, int id) {
+        Task bound = new Task(null, null);
+        bound.setStartMinute(startMinute);
+        bound.setId(id);
+        return bound;
+    }
+
+    private final IntKeyMap<Task> tasks = new IntKeyMap<>();
+    private final IntKeyMap<Task> subtasks = new IntKeyMap<>();
+    private final IntKeyMap<Task> epics = new IntKeyMap<>();
+    private final NavigableSet<Task> byStartTime = new TreeSet<>(START_TIME_ORDER);
+    private final NavigableSet<Task> byStartTimeView = Collections.unmodifiableNavigableSet(byStartTime);
+
+    @Override
+    public Task get(TaskType type, int id) {
+        return map(type).get(id);
+    }
+
+    @Override
+    public Task put(Task task) {
+        TaskType type = task.getTaskType();
+        Task oldTask = map(type).put(task.getId(), task);
+        if (type != TaskType.EPIC) {
+            if (oldTask != null) {
+                byStartTime.remove(oldTask);
+            }
+            byStartTime.add(task);
+        }
+        return oldTask;
+    }
+
+    @Override
+    public Task remove(TaskType type, int id) {
+        Task oldTask = map(type).remove(id);
+        if (oldTask != null && type != TaskType.EPIC) {
+            byStartTime.remove(oldTask);
+        }
+        return oldTask;
+    }
+
+    @Override
+    public Collection<Task> scan(TaskType type) {
+        return Collections.unmodifiableCollection(map(type).values());
+    }
+
+    @Override
+    public int size(TaskType type) {
+        return map(type).size();
+    }
+
+    @Override
+    public void clear(TaskType type) {
+        IntKeyMap<Task> map = map(type);
+        if (type != TaskType.EPIC) {
+            for (Task task : map.values()) {
+                byStartTime.remove(task);
+            }
+        }
+        map.clear();
+    }
+
+    @Override
+    public NavigableSet<Task> byStartTime() {
+        return byStartTimeView;
+    }
+
+    @Override
+    public ScheduleCursor scheduleBefore(long startMinute) {
+        return new TaskScheduleCursor(byStartTime, startMinute);
+    }
+
+    @Override
+    public boolean offHeap() {
+        return false;
+    }
+
+    private IntKeyMap<Task> map(TaskType type) {
+        switch (type) {
+            case EPIC:
+                return epics;
+            case SUBTASK:
+                return subtasks;
+            default:
+                return tasks;
+        }
+    }
+}
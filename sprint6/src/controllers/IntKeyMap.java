@@ -0,0 +1,309 @@
+package controllers;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Хеш-таблица с открытой адресацией и ключами типа int. Ключи хранятся в int[], значения в Object[],
+ * без объектов-узлов и упакованных Integer на каждую запись. Id выдаются подряд, поэтому ячейка
+ * выбирается по самому ключу, как в HashMap: соседние id лежат в соседних ячейках без коллизий.
+ * Записи размещаются по Robin Hood, удаление сдвигает следующие записи цепочки назад, поэтому удалённых
+ * ячеек не остаётся, а удаление подряд идущих id не проходит всю цепочку за ними.
+ * Значения null не поддерживаются, удаление через итераторы представлений тоже.
+ */
+final class IntKeyMap<V> extends AbstractMap<Integer, V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int threshold;
+    private int modCount;
+
+    IntKeyMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    public V get(int key) {
+        int slot = find(key);
+        return slot < 0 ? null : valueAt(slot);
+    }
+
+    public boolean containsKey(int key) {
+        return find(key) >= 0;
+    }
+
+    public V put(int key, V value) {
+        Objects.requireNonNull(value);
+        int slot = find(key);
+        if (slot >= 0) {
+            V oldValue = valueAt(slot);
+            values[slot] = value;
+            return oldValue;
+        }
+        insert(key, value);
+        modCount++;
+        if (++size > threshold) {
+            rehash(values.length << 1);
+        }
+        return null;
+    }
+
+    public V remove(int key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        V oldValue = valueAt(slot);
+        delete(slot);
+        return oldValue;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer && containsKey((int) (Integer) key);
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        modCount++;
+        size = 0;
+        if (values.length > MIN_CAPACITY) {
+            allocate(MIN_CAPACITY);
+        } else {
+            Arrays.fill(values, null);
+        }
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super Integer, ? super V> action) {
+        int expectedModCount = modCount;
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != null) {
+                action.accept(keys[slot], valueAt(slot));
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Set<Integer> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Integer at(int slot) {
+                        return keys[slot];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Collection<V> values() {
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<V> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    V at(int slot) {
+                        return valueAt(slot);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<Integer, V>> iterator() {
+                return new SlotIterator<>() {
+                    @Override
+                    Map.Entry<Integer, V> at(int slot) {
+                        return new SimpleImmutableEntry<>(keys[slot], valueAt(slot));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    private int home(int key) {
+        return (key ^ (key >>> 16)) & mask;
+    }
+
+    private int distance(int slot) {
+        return (slot - home(keys[slot])) & mask;
+    }
+
+    /**
+     * Поиск прекращается, как только запись в ячейке лежит ближе к своему месту, чем искомый ключ
+     * к своему: по порядку Robin Hood дальше ключа быть не может.
+     */
+    private int find(int key) {
+        int slot = home(key);
+        for (int distance = 0; values[slot] != null && distance(slot) >= distance; distance++) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Вставка Robin Hood: новая запись занимает ячейку записи, которая ушла от своего места меньше,
+     * а та идёт дальше. Цепочки остаются упорядоченными по удалению от своего места.
+     */
+    private void insert(int key, Object value) {
+        int slot = home(key);
+        for (int distance = 0; values[slot] != null; distance++) {
+            int slotDistance = distance(slot);
+            if (slotDistance < distance) {
+                int displacedKey = keys[slot];
+                Object displacedValue = values[slot];
+                keys[slot] = key;
+                values[slot] = value;
+                key = displacedKey;
+                value = displacedValue;
+                distance = slotDistance;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /**
+     * Сдвигает назад записи за удалённой до пустой ячейки или до записи, которая уже на своём месте.
+     * Соседние id лежат на своих местах, поэтому удаление подряд идущих id стоит O(1).
+     */
+    private void delete(int slot) {
+        modCount++;
+        size--;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != null && distance(next) > 0) {
+            keys[hole] = keys[next];
+            values[hole] = values[next];
+            hole = next;
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != null) {
+                insert(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        threshold = capacity / 4 * 3;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    private abstract class SlotIterator<E> implements Iterator<E> {
+        private final int expectedModCount = modCount;
+        private int slot = advance(0);
+
+        abstract E at(int slot);
+
+        @Override
+        public boolean hasNext() {
+            return slot < values.length;
+        }
+
+        @Override
+        public E next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            E element = at(slot);
+            slot = advance(slot + 1);
+            return element;
+        }
+
+        private int advance(int from) {
+            while (from < values.length && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package controllers;
+
+enum JournalOperation {
+    PUT,
+    REMOVE,
+    CLEAR,
+    VIEW
+}
@@ -0,0 +1,238 @@
+package controllers;
+
+import exceptions.ManagerSaveException;
+import model.Task;
+import model.TaskType;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.NavigableSet;
+
+/**
+ * Хранилище с журналом в файле. Чтение идёт из вложенного хранилища, каждое изменение сначала дописывается
+ * в журнал строкой PUT, REMOVE или CLEAR в формате журнала FileBackedTasksManager и передаётся системе
+ * до возврата из метода. При открытии журнал проигрывается. Когда записей в журнале становится больше,
+ * чем вдвое живых задач, при открытии или после очередного изменения, он переписывается одними PUT.
+ * Рассчитанные поля эпиков и история в журнал не попадают.
+ */
+public final class JournaledTaskStore implements TaskStore, AutoCloseable {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final File file;
+    private final TaskStore delegate;
+    private Writer journal;
+    private CsvTaskWriter rowWriter;
+    private int records;
+
+    public JournaledTaskStore(File file) {
+        this(file, new InMemoryTaskStore());
+    }
+
+    public JournaledTaskStore(File file, TaskStore delegate) {
+        this.file = file;
+        this.delegate = delegate;
+        if (file.exists()) {
+            replay();
+        }
+        if (records > 2 * liveCount()) {
+            rewrite();
+        } else {
+            open();
+        }
+    }
+
+    @Override
+    public Task get(TaskType type, int id) {
+        return delegate.get(type, id);
+    }
+
+    @Override
+    public Task put(Task task) {
+        try {
+            journal.write(JournalOperation.PUT.name());
+            journal.write(',');
+            rowWriter.writeRow(task);
+            endRecord();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал хранилища: " + e.getMessage());
+        }
+        Task oldTask = delegate.put(task);
+        compactIfNeeded();
+        return oldTask;
+    }
+
+    @Override
+    public Task remove(TaskType type, int id) {
+        if (delegate.get(type, id) == null) {
+            return null;
+        }
+        append(JournalOperation.REMOVE, String.valueOf(id));
+        Task oldTask = delegate.remove(type, id);
+        compactIfNeeded();
+        return oldTask;
+    }
+
+    @Override
+    public Collection<Task> scan(TaskType type) {
+        return delegate.scan(type);
+    }
+
+    @Override
+    public int size(TaskType type) {
+        return delegate.size(type);
+    }
+
+    @Override
+    public void clear(TaskType type) {
+        append(JournalOperation.CLEAR, type.name());
+        delegate.clear(type);
+        compactIfNeeded();
+    }
+
+    @Override
+    public NavigableSet<Task> byStartTime() {
+        return delegate.byStartTime();
+    }
+
+    @Override
+    public ScheduleCursor scheduleBefore(long startMinute) {
+        return delegate.scheduleBefore(startMinute);
+    }
+
+    @Override
+    public boolean offHeap() {
+        return delegate.offHeap();
+    }
+
+    /**
+     * Переписывает журнал так, чтобы в нём остались только текущие задачи. Новый журнал пишется во временный
+     * файл и подменяет старый целиком.
+     */
+    public void compact() {
+        rewrite();
+    }
+
+    private void rewrite() {
+        close();
+        File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+        try (Writer writer = new BufferedWriter(new FileWriter(tempFile, StandardCharsets.UTF_8))) {
+            CsvTaskWriter csvWriter = new CsvTaskWriter(writer);
+            for (TaskType type : TaskType.values()) {
+                for (Task task : delegate.scan(type)) {
+                    writer.write(JournalOperation.PUT.name());
+                    writer.write(',');
+                    csvWriter.writeRow(task);
+                    writer.write(LINE_SEPARATOR);
+                }
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сжатии журнала хранилища: " + e.getMessage());
+        }
+        try {
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при сжатии журнала хранилища: " + e.getMessage());
+        }
+        records = liveCount();
+        open();
+    }
+
+    @Override
+    public void close() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при закрытии журнала хранилища: " + e.getMessage());
+        }
+        journal = null;
+    }
+
+    private void replay() {
+        try (Reader reader = new FileReader(file, StandardCharsets.UTF_8)) {
+            CsvParser parser = new CsvParser(reader);
+            while (parser.nextRecord()) {
+                if (parser.isBlank()) {
+                    continue;
+                }
+                switch (parser.constant(0, JournalOperation.values())) {
+                    case PUT:
+                        delegate.put(CsvTaskReader.toTask(parser, 1));
+                        break;
+                    case REMOVE:
+                        int id = parser.integer(1);
+                        for (TaskType type : TaskType.values()) {
+                            delegate.remove(type, id);
+                        }
+                        break;
+                    case CLEAR:
+                        delegate.clear(parser.constant(1, TaskType.values()));
+                        break;
+                    default:
+                        break;
+                }
+                records++;
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при чтении журнала хранилища: " + e.getMessage());
+        }
+    }
+
+    private void open() {
+        try {
+            journal = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8, true));
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при открытии журнала хранилища: " + e.getMessage());
+        }
+        rowWriter = new CsvTaskWriter(journal);
+    }
+
+    private void append(JournalOperation operation, String value) {
+        try {
+            journal.write(operation.name());
+            journal.write(',');
+            journal.write(value);
+            endRecord();
+        } catch (IOException e) {
+            throw new ManagerSaveException("Ошибка при записи в журнал хранилища: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Вызывается после того, как изменение применено к вложенному хранилищу, иначе сжатый журнал
+     * потерял бы только что записанную строку.
+     */
+    private void compactIfNeeded() {
+        if (records > 2 * liveCount()) {
+            rewrite();
+        }
+    }
+
+    private void endRecord() throws IOException {
+        journal.write(LINE_SEPARATOR);
+        journal.flush();
+        records++;
+    }
+
+    private int liveCount() {
+        int count = 0;
+        for (TaskType type : TaskType.values()) {
+            count += delegate.size(type);
+        }
+        return count;
+    }
+}
@@ -10,11 +10,60 @@ public class Managers {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getDefault(StorageEngine engine) {
+        return new InMemoryTaskManager(getDefaultStore(engine));
+    }
+
+    public static TaskManager getDefault(StorageEngine engine, File journalFile) {
+        return new InMemoryTaskManager(getDefaultStore(engine, journalFile));
+    }
+
+    public static TaskStore getDefaultStore(StorageEngine engine) {
+        return getDefaultStore(engine, null);
+    }
+
+    /**
+     * journalFile нужен только хранилищу JOURNALED_FILE, остальные его не используют.
+     */
+    public static TaskStore getDefaultStore(StorageEngine engine, File journalFile) {
+        switch (engine) {
+            case JOURNALED_FILE:
+                if (journalFile == null) {
+                    throw new IllegalArgumentException("Для хранилища " + engine + " нужен файл журнала");
+                }
+                return new JournaledTaskStore(journalFile);
+            case OFF_HEAP:
+                return new OffHeapTaskStore();
+            default:
+                return new InMemoryTaskStore();
+        }
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
 
+    public static HistoryManager getDefaultHistory(int capacity) {
+        return new InMemoryHistoryManager(capacity);
+    }
+
+    public static HistoryManager getDefaultConcurrentHistory() {
+        return new ConcurrentHistoryManager();
+    }
+
+    public static TaskManager getDefaultConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getCaching(TaskManager backend, int capacity) {
+        return new CachingTaskManager(backend, capacity);
+    }
+
     public static TaskManager getDefaultFile() {
         return new FileBackedTasksManager(new File("sprint6/resources/file.csv"));
     }
+
+    public static TaskManager getDefaultBinaryFile() {
+        return new FileBackedTasksManager(new File("sprint6/resources/file.bin"), SnapshotFormat.BINARY);
+    }
 }
\ No newline at end of file
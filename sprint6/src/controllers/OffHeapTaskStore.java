@@ -0,0 +1,939 @@
+package controllers;
+
+import model.EpochMinutes;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.SortedSet;
+
+/**
+ * Хранилище вне кучи для миллионов задач. Задачи и подзадачи лежат записями фиксированной длины в прямых
+ * ByteBuffer-слябах, названия и описания в UTF-8 в отдельной арене строк, таблицы id и порядок по времени
+ * начала тоже вне кучи, поэтому куча не растёт с числом задач. При чтении запись разворачивается в обычный
+ * Task или Subtask, который хранилище у себя не держит: изменения такой копии в хранилище не попадают,
+ * сохранять их нужно через put. Эпики остаются в куче, менеджер меняет их рассчитанные поля на месте;
+ * состав больших эпиков сам уходит в общую область вне кучи. Порядок по времени начала - декартово дерево
+ * прямо на записях слябов, вставка и удаление в нём стоят O(log n). Хранилище не потокобезопасно.
+ */
+public class OffHeapTaskStore implements TaskStore {
+
+    private static final int SLAB_SHIFT = 14;
+    private static final int SLAB_RECORDS = 1 << SLAB_SHIFT;
+
+    private static final int ID = 0;
+    private static final int TYPE = 4;
+    private static final int STATUS = 5;
+    private static final int EPIC_ID = 8;
+    private static final int START_MINUTE = 16;
+    private static final int DURATION = 24;
+    private static final int NAME = 32;
+    private static final int DESCRIPTION = 40;
+    private static final int LEFT = 48;
+    private static final int RIGHT = 52;
+    private static final int PARENT = 56;
+    private static final int SUBTREE_SIZE = 60;
+    private static final int RECORD_SIZE = 64;
+
+    private static final int NIL = -1;
+    private static final Comparator<Task> DESCENDING_ORDER = InMemoryTaskStore.START_TIME_ORDER.reversed();
+
+    private static final long NULL_STRING = -1;
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private int slotCount;
+    private int freeSlot = -1;
+    private StringArena strings = new StringArena();
+    private final SlotTable tasks = new SlotTable();
+    private final SlotTable subtasks = new SlotTable();
+    private final IntKeyMap<Task> epics = new IntKeyMap<>();
+    private final StartTree order = new StartTree();
+    private final NavigableSet<Task> byStartTime = new StartTimeSet(null, false, null, false, false);
+
+    @Override
+    public Task get(TaskType type, int id) {
+        if (type == TaskType.EPIC) {
+            return epics.get(id);
+        }
+        int slot = table(type).get(id);
+        return slot < 0 ? null : read(slot);
+    }
+
+    @Override
+    public Task put(Task task) {
+        TaskType type = task.getTaskType();
+        if (type == TaskType.EPIC) {
+            return epics.put(task.getId(), task);
+        }
+        SlotTable table = table(type);
+        int slot = table.get(task.getId());
+        Task oldTask = null;
+        if (slot >= 0) {
+            oldTask = read(slot);
+            order.remove(slot);
+            freeStrings(slot);
+        } else {
+            slot = allocateSlot();
+            table.put(task.getId(), slot);
+        }
+        write(slot, task);
+        order.insert(slot);
+        compactStringsIfNeeded();
+        return oldTask;
+    }
+
+    @Override
+    public Task remove(TaskType type, int id) {
+        if (type == TaskType.EPIC) {
+            return epics.remove(id);
+        }
+        int slot = table(type).remove(id);
+        if (slot < 0) {
+            return null;
+        }
+        Task oldTask = read(slot);
+        order.remove(slot);
+        freeStrings(slot);
+        releaseSlot(slot);
+        return oldTask;
+    }
+
+    @Override
+    public Collection<Task> scan(TaskType type) {
+        if (type == TaskType.EPIC) {
+            return Collections.unmodifiableCollection(epics.values());
+        }
+        SlotTable table = table(type);
+        return new AbstractCollection<>() {
+            @Override
+            public Iterator<Task> iterator() {
+                return new Iterator<>() {
+                    private final int expectedModCount = table.modCount;
+                    private int index = table.nextIndex(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < table.capacity();
+                    }
+
+                    @Override
+                    public Task next() {
+                        if (table.modCount != expectedModCount) {
+                            throw new ConcurrentModificationException();
+                        }
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        Task task = read(table.slotAt(index));
+                        index = table.nextIndex(index + 1);
+                        return task;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return table.size;
+            }
+        };
+    }
+
+    @Override
+    public int size(TaskType type) {
+        return type == TaskType.EPIC ? epics.size() : table(type).size;
+    }
+
+    @Override
+    public void clear(TaskType type) {
+        if (type == TaskType.EPIC) {
+            epics.clear();
+            return;
+        }
+        SlotTable table = table(type);
+        for (int index = table.nextIndex(0); index < table.capacity(); index = table.nextIndex(index + 1)) {
+            int slot = table.slotAt(index);
+            order.remove(slot);
+            freeStrings(slot);
+            releaseSlot(slot);
+        }
+        table.clear();
+    }
+
+    @Override
+    public NavigableSet<Task> byStartTime() {
+        return byStartTime;
+    }
+
+    @Override
+    public ScheduleCursor scheduleBefore(long startMinute) {
+        return new SlabScheduleCursor(order.lowerSlot(startMinute, Integer.MIN_VALUE));
+    }
+
+    @Override
+    public boolean offHeap() {
+        return true;
+    }
+
+    public long getStringBytes() {
+        return strings.usedBytes;
+    }
+
+    private SlotTable table(TaskType type) {
+        return type == TaskType.SUBTASK ? subtasks : tasks;
+    }
+
+    private ByteBuffer slab(int slot) {
+        return slabs.get(slot >>> SLAB_SHIFT);
+    }
+
+    private static int offset(int slot) {
+        return (slot & (SLAB_RECORDS - 1)) * RECORD_SIZE;
+    }
+
+    private int allocateSlot() {
+        if (freeSlot >= 0) {
+            int slot = freeSlot;
+            freeSlot = slab(slot).getInt(offset(slot) + EPIC_ID);
+            return slot;
+        }
+        int slot = slotCount++;
+        if ((slot >>> SLAB_SHIFT) == slabs.size()) {
+            slabs.add(ByteBuffer.allocateDirect(RECORD_SIZE * SLAB_RECORDS));
+        }
+        return slot;
+    }
+
+    private void releaseSlot(int slot) {
+        slab(slot).putInt(offset(slot) + EPIC_ID, freeSlot);
+        freeSlot = slot;
+    }
+
+    private void write(int slot, Task task) {
+        ByteBuffer slab = slab(slot);
+        int offset = offset(slot);
+        slab.putInt(offset + ID, task.getId());
+        slab.put(offset + TYPE, (byte) task.getTaskType().ordinal());
+        slab.put(offset + STATUS, (byte) task.getStatus().ordinal());
+        slab.putInt(offset + EPIC_ID, task.getTaskType() == TaskType.SUBTASK ? ((Subtask) task).getEpicId() : 0);
+        slab.putLong(offset + START_MINUTE, task.getStartMinute());
+        slab.putLong(offset + DURATION, task.getDuration());
+        slab.putLong(offset + NAME, strings.add(task.getName()));
+        slab.putLong(offset + DESCRIPTION, strings.add(task.getDescription()));
+    }
+
+    private Task read(int slot) {
+        ByteBuffer slab = slab(slot);
+        int offset = offset(slot);
+        int id = slab.getInt(offset + ID);
+        Status status = STATUSES[slab.get(offset + STATUS)];
+        long duration = slab.getLong(offset + DURATION);
+        String name = strings.get(slab.getLong(offset + NAME));
+        String description = strings.get(slab.getLong(offset + DESCRIPTION));
+        Task task;
+        if (TYPES[slab.get(offset + TYPE)] == TaskType.SUBTASK) {
+            task = new Subtask(name, description, id, status, slab.getInt(offset + EPIC_ID), null, duration);
+        } else {
+            task = new Task(name, description, id, status, null, duration);
+        }
+        task.setStartMinute(slab.getLong(offset + START_MINUTE));
+        return task;
+    }
+
+    private void freeStrings(int slot) {
+        ByteBuffer slab = slab(slot);
+        int offset = offset(slot);
+        strings.free(slab.getLong(offset + NAME));
+        strings.free(slab.getLong(offset + DESCRIPTION));
+    }
+
+    /**
+     * Арена только дописывается, поэтому строки заменённых и удалённых задач копятся в ней. Когда мусора
+     * становится больше половины, живые строки переписываются в новую арену.
+     */
+    private void compactStringsIfNeeded() {
+        if (strings.garbageBytes < StringArena.CHUNK_SIZE || strings.garbageBytes * 2 < strings.usedBytes) {
+            return;
+        }
+        StringArena compacted = new StringArena();
+        for (SlotTable table : new SlotTable[]{tasks, subtasks}) {
+            for (int index = table.nextIndex(0); index < table.capacity(); index = table.nextIndex(index + 1)) {
+                int slot = table.slotAt(index);
+                ByteBuffer slab = slab(slot);
+                int offset = offset(slot);
+                slab.putLong(offset + NAME, compacted.copy(strings, slab.getLong(offset + NAME)));
+                slab.putLong(offset + DESCRIPTION, compacted.copy(strings, slab.getLong(offset + DESCRIPTION)));
+            }
+        }
+        strings = compacted;
+    }
+
+    private int compare(int slot, long startMinute, int id) {
+        int result = Long.compare(startMinute(slot), startMinute);
+        if (result == 0) {
+            result = Integer.compare(id(slot), id);
+        }
+        return result;
+    }
+
+    private int id(int slot) {
+        return slab(slot).getInt(offset(slot) + ID);
+    }
+
+    private long startMinute(int slot) {
+        return slab(slot).getLong(offset(slot) + START_MINUTE);
+    }
+
+    private long endMinute(int slot) {
+        long startMinute = startMinute(slot);
+        return startMinute == EpochMinutes.NONE ? EpochMinutes.NONE
+                : startMinute + slab(slot).getLong(offset(slot) + DURATION);
+    }
+
+    private int link(int slot, int field) {
+        return slab(slot).getInt(offset(slot) + field);
+    }
+
+    private void setLink(int slot, int field, int value) {
+        slab(slot).putInt(offset(slot) + field, value);
+    }
+
+    /**
+     * Строки в UTF-8 с длиной впереди, в прямых буферах по мегабайту. Ссылка на строку - номер буфера
+     * в старших 32 битах и позиция в младших.
+     */
+    private static final class StringArena {
+        private static final int CHUNK_SIZE = 1 << 20;
+
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private ByteBuffer current;
+        private long usedBytes;
+        private long garbageBytes;
+        private byte[] scratch = new byte[256];
+
+        private long add(String value) {
+            if (value == null) {
+                return NULL_STRING;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            return add(bytes, 0, bytes.length);
+        }
+
+        private long add(byte[] bytes, int offset, int length) {
+            int size = Integer.BYTES + length;
+            if (current == null || current.remaining() < size) {
+                current = ByteBuffer.allocateDirect(Math.max(CHUNK_SIZE, size));
+                chunks.add(current);
+            }
+            int position = current.position();
+            current.putInt(length).put(bytes, offset, length);
+            usedBytes += size;
+            return ((long) (chunks.size() - 1) << 32) | position;
+        }
+
+        private long copy(StringArena source, long ref) {
+            if (ref == NULL_STRING) {
+                return NULL_STRING;
+            }
+            int length = source.load(ref);
+            return add(source.scratch, 0, length);
+        }
+
+        private String get(long ref) {
+            if (ref == NULL_STRING) {
+                return null;
+            }
+            int length = load(ref);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void free(long ref) {
+            if (ref != NULL_STRING) {
+                garbageBytes += Integer.BYTES + chunks.get((int) (ref >>> 32)).getInt((int) ref);
+            }
+        }
+
+        private int load(long ref) {
+            ByteBuffer chunk = chunks.get((int) (ref >>> 32));
+            int position = (int) ref;
+            int length = chunk.getInt(position);
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            chunk.get(position + Integer.BYTES, scratch, 0, length);
+            return length;
+        }
+    }
+
+    /**
+     * Таблица id -> номер записи с открытой адресацией в прямом буфере: пары (id, номер + 1), ноль во втором
+     * поле означает пустую ячейку. Ячейка выбирается и записи размещаются по Robin Hood, как в IntKeyMap, удаление
+     * сдвигает назад только смещённые записи. Таблица уменьшается вдвое, когда занято меньше 1/8 ячеек, поэтому
+     * обход стоит O(size) и после массового удаления.
+     */
+    private static final class SlotTable {
+        private static final int MIN_CAPACITY = 16;
+
+        private ByteBuffer cells;
+        private int mask;
+        private int size;
+        private int threshold;
+        private int modCount;
+
+        private SlotTable() {
+            allocate(MIN_CAPACITY);
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private int get(int id) {
+            int index = find(id);
+            return index < 0 ? -1 : slotAt(index);
+        }
+
+        private void put(int id, int slot) {
+            insert(((long) id << 32) | (slot + 1));
+            modCount++;
+            if (++size > threshold) {
+                rehash(capacity() << 1);
+            }
+        }
+
+        private int remove(int id) {
+            int index = find(id);
+            if (index < 0) {
+                return -1;
+            }
+            int slot = slotAt(index);
+            modCount++;
+            size--;
+            int hole = index;
+            int next = (hole + 1) & mask;
+            while (slotAt(next) >= 0 && distance(next) > 0) {
+                cells.putLong(hole * 8, cells.getLong(next * 8));
+                hole = next;
+                next = (next + 1) & mask;
+            }
+            cells.putLong(hole * 8, 0L);
+            if (capacity() > MIN_CAPACITY && size < capacity() / 8) {
+                rehash(capacity() >> 1);
+            }
+            return slot;
+        }
+
+        private void clear() {
+            modCount++;
+            size = 0;
+            allocate(MIN_CAPACITY);
+        }
+
+        private int slotAt(int index) {
+            return cells.getInt(index * 8 + 4) - 1;
+        }
+
+        private int nextIndex(int from) {
+            while (from < capacity() && slotAt(from) < 0) {
+                from++;
+            }
+            return from;
+        }
+
+        private int home(int id) {
+            return (id ^ (id >>> 16)) & mask;
+        }
+
+        private int distance(int index) {
+            return (index - home(cells.getInt(index * 8))) & mask;
+        }
+
+        private int find(int id) {
+            int index = home(id);
+            for (int distance = 0; slotAt(index) >= 0 && distance(index) >= distance; distance++) {
+                if (cells.getInt(index * 8) == id) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        /** Вставка Robin Hood, ячейка - id в старших 32 битах и номер записи + 1 в младших. */
+        private void insert(long cell) {
+            int index = home((int) (cell >>> 32));
+            for (int distance = 0; slotAt(index) >= 0; distance++) {
+                int cellDistance = distance(index);
+                if (cellDistance < distance) {
+                    long displaced = cells.getLong(index * 8);
+                    cells.putLong(index * 8, cell);
+                    cell = displaced;
+                    distance = cellDistance;
+                }
+                index = (index + 1) & mask;
+            }
+            cells.putLong(index * 8, cell);
+        }
+
+        private void rehash(int capacity) {
+            ByteBuffer oldCells = cells;
+            int oldCapacity = capacity();
+            allocate(capacity);
+            for (int index = 0; index < oldCapacity; index++) {
+                if (oldCells.getInt(index * 8 + 4) != 0) {
+                    insert(oldCells.getLong(index * 8));
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            cells = ByteBuffer.allocateDirect(capacity * 8);
+            mask = capacity - 1;
+            threshold = capacity / 4 * 3;
+        }
+    }
+
+    /**
+     * Декартово дерево (treap) задач и подзадач по времени начала, затем по id. Узлы дерева - сами записи
+     * в слябах: ссылки на детей и родителя и размер поддерева лежат в полях LEFT, RIGHT, PARENT и SUBTREE_SIZE.
+     * Приоритет узла - перемешанный номер записи, поэтому дерево сбалансировано в среднем, а вставка,
+     * удаление, поиск по ключу и по номеру в порядке стоят O(log n) без сдвига памяти.
+     */
+    private final class StartTree {
+        private int root = NIL;
+        private int size;
+        private int modCount;
+
+        private void insert(int slot) {
+            long startMinute = startMinute(slot);
+            int id = id(slot);
+            setLink(slot, LEFT, NIL);
+            setLink(slot, RIGHT, NIL);
+            setLink(slot, SUBTREE_SIZE, 1);
+            int parent = NIL;
+            int side = LEFT;
+            for (int node = root; node != NIL; node = link(node, side)) {
+                setLink(node, SUBTREE_SIZE, link(node, SUBTREE_SIZE) + 1);
+                parent = node;
+                side = compare(node, startMinute, id) > 0 ? LEFT : RIGHT;
+            }
+            setLink(slot, PARENT, parent);
+            if (parent == NIL) {
+                root = slot;
+            } else {
+                setLink(parent, side, slot);
+            }
+            while (link(slot, PARENT) != NIL && priority(slot) > priority(link(slot, PARENT))) {
+                rotateUp(slot);
+            }
+            size++;
+            modCount++;
+        }
+
+        /**
+         * Опускает запись поворотами до листа, затем отрезает её и уменьшает размеры поддеревьев на пути к корню.
+         */
+        private void remove(int slot) {
+            while (true) {
+                int left = link(slot, LEFT);
+                int right = link(slot, RIGHT);
+                if (left == NIL && right == NIL) {
+                    break;
+                }
+                rotateUp(right == NIL || (left != NIL && priority(left) > priority(right)) ? left : right);
+            }
+            int parent = link(slot, PARENT);
+            if (parent == NIL) {
+                root = NIL;
+            } else {
+                setLink(parent, link(parent, LEFT) == slot ? LEFT : RIGHT, NIL);
+            }
+            for (int node = parent; node != NIL; node = link(node, PARENT)) {
+                setLink(node, SUBTREE_SIZE, link(node, SUBTREE_SIZE) - 1);
+            }
+            size--;
+            modCount++;
+        }
+
+        /** Поворот, после которого node занимает место своего родителя. */
+        private void rotateUp(int node) {
+            int parent = link(node, PARENT);
+            int grandparent = link(parent, PARENT);
+            int side = link(parent, LEFT) == node ? LEFT : RIGHT;
+            int opposite = side == LEFT ? RIGHT : LEFT;
+            int moved = link(node, opposite);
+            setLink(parent, side, moved);
+            if (moved != NIL) {
+                setLink(moved, PARENT, parent);
+            }
+            setLink(node, opposite, parent);
+            setLink(parent, PARENT, node);
+            setLink(node, PARENT, grandparent);
+            if (grandparent == NIL) {
+                root = node;
+            } else {
+                setLink(grandparent, link(grandparent, LEFT) == parent ? LEFT : RIGHT, node);
+            }
+            setLink(node, SUBTREE_SIZE, link(parent, SUBTREE_SIZE));
+            setLink(parent, SUBTREE_SIZE, subtreeSize(link(parent, LEFT)) + subtreeSize(link(parent, RIGHT)) + 1);
+        }
+
+        private int subtreeSize(int node) {
+            return node == NIL ? 0 : link(node, SUBTREE_SIZE);
+        }
+
+        private int priority(int slot) {
+            int hash = slot * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+
+        /** Число записей меньше ключа (strict = false) или не больше ключа (strict = true). */
+        private int rank(long startMinute, int id, boolean strict) {
+            int rank = 0;
+            int node = root;
+            while (node != NIL) {
+                int result = compare(node, startMinute, id);
+                if (result < 0 || (strict && result == 0)) {
+                    rank += subtreeSize(link(node, LEFT)) + 1;
+                    node = link(node, RIGHT);
+                } else {
+                    node = link(node, LEFT);
+                }
+            }
+            return rank;
+        }
+
+        private int rank(Task task, boolean strict) {
+            return rank(task.getStartMinute(), task.getId(), strict);
+        }
+
+        /** Запись с номером index в порядке по времени начала. */
+        private int select(int index) {
+            int node = root;
+            while (true) {
+                int leftSize = subtreeSize(link(node, LEFT));
+                if (index < leftSize) {
+                    node = link(node, LEFT);
+                } else if (index == leftSize) {
+                    return node;
+                } else {
+                    index -= leftSize + 1;
+                    node = link(node, RIGHT);
+                }
+            }
+        }
+
+        /** Последняя запись меньше ключа или NIL. */
+        private int lowerSlot(long startMinute, int id) {
+            int result = NIL;
+            int node = root;
+            while (node != NIL) {
+                if (compare(node, startMinute, id) < 0) {
+                    result = node;
+                    node = link(node, RIGHT);
+                } else {
+                    node = link(node, LEFT);
+                }
+            }
+            return result;
+        }
+
+        private int next(int slot) {
+            return step(slot, RIGHT, LEFT);
+        }
+
+        private int previous(int slot) {
+            return step(slot, LEFT, RIGHT);
+        }
+
+        /** Соседняя запись в порядке: крайняя в поддереве со стороны forward или первый предок с той стороны. */
+        private int step(int slot, int forward, int backward) {
+            int child = link(slot, forward);
+            if (child != NIL) {
+                while (link(child, backward) != NIL) {
+                    child = link(child, backward);
+                }
+                return child;
+            }
+            int node = slot;
+            int parent = link(node, PARENT);
+            while (parent != NIL && link(parent, forward) == node) {
+                node = parent;
+                parent = link(node, PARENT);
+            }
+            return parent;
+        }
+    }
+
+    /**
+     * Порядок по времени начала как NavigableSet, с границами для subSet, headSet и tailSet и обратным
+     * порядком через descendingSet. Границы задаются в прямом порядке, поиск идёт по полям записей
+     * в слябах, задача разворачивается только для возвращаемого элемента. Набор только для чтения:
+     * он меняется вместе с хранилищем.
+     */
+    private final class StartTimeSet extends AbstractSet<Task> implements NavigableSet<Task> {
+        private final Task low;
+        private final boolean lowInclusive;
+        private final Task high;
+        private final boolean highInclusive;
+        private final boolean descending;
+
+        private StartTimeSet(Task low, boolean lowInclusive, Task high, boolean highInclusive, boolean descending) {
+            this.low = low;
+            this.lowInclusive = lowInclusive;
+            this.high = high;
+            this.highInclusive = highInclusive;
+            this.descending = descending;
+        }
+
+        private int from() {
+            return low == null ? 0 : order.rank(low, !lowInclusive);
+        }
+
+        private int to() {
+            return high == null ? order.size : order.rank(high, highInclusive);
+        }
+
+        @Override
+        public Iterator<Task> iterator() {
+            return new OrderIterator(from(), to(), descending);
+        }
+
+        @Override
+        public Iterator<Task> descendingIterator() {
+            return new OrderIterator(from(), to(), !descending);
+        }
+
+        @Override
+        public int size() {
+            return Math.max(0, to() - from());
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Task)) {
+                return false;
+            }
+            Task task = (Task) o;
+            int index = order.rank(task, false);
+            return index >= from() && index < to()
+                    && compare(order.select(index), task.getStartMinute(), task.getId()) == 0;
+        }
+
+        @Override
+        public Task lower(Task task) {
+            return descending ? above(task, true) : below(task, true);
+        }
+
+        @Override
+        public Task floor(Task task) {
+            return descending ? above(task, false) : below(task, false);
+        }
+
+        @Override
+        public Task ceiling(Task task) {
+            return descending ? below(task, false) : above(task, false);
+        }
+
+        @Override
+        public Task higher(Task task) {
+            return descending ? below(task, true) : above(task, true);
+        }
+
+        @Override
+        public Task first() {
+            return edge(descending ? to() - 1 : from());
+        }
+
+        @Override
+        public Task last() {
+            return edge(descending ? from() : to() - 1);
+        }
+
+        @Override
+        public Task pollFirst() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Task pollLast() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public NavigableSet<Task> descendingSet() {
+            return new StartTimeSet(low, lowInclusive, high, highInclusive, !descending);
+        }
+
+        @Override
+        public NavigableSet<Task> subSet(Task fromElement, boolean fromInclusive, Task toElement,
+                                         boolean toInclusive) {
+            return tailSet(fromElement, fromInclusive).headSet(toElement, toInclusive);
+        }
+
+        @Override
+        public NavigableSet<Task> headSet(Task toElement, boolean inclusive) {
+            return descending ? withLow(toElement, inclusive) : withHigh(toElement, inclusive);
+        }
+
+        @Override
+        public NavigableSet<Task> tailSet(Task fromElement, boolean inclusive) {
+            return descending ? withHigh(fromElement, inclusive) : withLow(fromElement, inclusive);
+        }
+
+        @Override
+        public SortedSet<Task> subSet(Task fromElement, Task toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public SortedSet<Task> headSet(Task toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public SortedSet<Task> tailSet(Task fromElement) {
+            return tailSet(fromElement, true);
+        }
+
+        @Override
+        public Comparator<? super Task> comparator() {
+            return descending ? DESCENDING_ORDER : InMemoryTaskStore.START_TIME_ORDER;
+        }
+
+        private StartTimeSet withHigh(Task toElement, boolean inclusive) {
+            if (high != null) {
+                int result = InMemoryTaskStore.START_TIME_ORDER.compare(toElement, high);
+                if (result > 0 || (result == 0 && !highInclusive)) {
+                    return this;
+                }
+            }
+            return new StartTimeSet(low, lowInclusive, toElement, inclusive, descending);
+        }
+
+        private StartTimeSet withLow(Task fromElement, boolean inclusive) {
+            if (low != null) {
+                int result = InMemoryTaskStore.START_TIME_ORDER.compare(fromElement, low);
+                if (result < 0 || (result == 0 && !lowInclusive)) {
+                    return this;
+                }
+            }
+            return new StartTimeSet(fromElement, inclusive, high, highInclusive, descending);
+        }
+
+        /** Наибольший элемент меньше задачи (strict) или не больше её, в прямом порядке. */
+        private Task below(Task task, boolean strict) {
+            return at(Math.min(order.rank(task, !strict), to()) - 1);
+        }
+
+        /** Наименьший элемент больше задачи (strict) или не меньше её, в прямом порядке. */
+        private Task above(Task task, boolean strict) {
+            return at(Math.max(order.rank(task, strict), from()));
+        }
+
+        private Task edge(int index) {
+            Task task = at(index);
+            if (task == null) {
+                throw new NoSuchElementException();
+            }
+            return task;
+        }
+
+        private Task at(int index) {
+            return index >= from() && index < to() ? read(order.select(index)) : null;
+        }
+    }
+
+    /**
+     * Итератор по отрезку порядка: первая запись ищется по номеру, дальше переходы к соседу по дереву.
+     */
+    private final class OrderIterator implements Iterator<Task> {
+        private final int expectedModCount = order.modCount;
+        private final boolean descending;
+        private int remaining;
+        private int next;
+
+        private OrderIterator(int from, int to, boolean descending) {
+            this.descending = descending;
+            this.remaining = Math.max(0, to - from);
+            this.next = remaining == 0 ? NIL : order.select(descending ? to - 1 : from);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public Task next() {
+            if (order.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Task task = read(next);
+            remaining--;
+            if (remaining > 0) {
+                next = descending ? order.previous(next) : order.next(next);
+            }
+            return task;
+        }
+    }
+
+    /**
+     * Курсор по расписанию, который читает id и время прямо из записей и задачи не разворачивает.
+     */
+    private final class SlabScheduleCursor implements ScheduleCursor {
+        private final int expectedModCount = order.modCount;
+        private int current = NIL;
+        private int next;
+
+        private SlabScheduleCursor(int next) {
+            this.next = next;
+        }
+
+        @Override
+        public boolean previous() {
+            if (order.modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            current = next;
+            if (current == NIL) {
+                return false;
+            }
+            next = order.previous(current);
+            return true;
+        }
+
+        @Override
+        public int id() {
+            return OffHeapTaskStore.this.id(current);
+        }
+
+        @Override
+        public long startMinute() {
+            return OffHeapTaskStore.this.startMinute(current);
+        }
+
+        @Override
+        public long endMinute() {
+            return OffHeapTaskStore.this.endMinute(current);
+        }
+    }
+}
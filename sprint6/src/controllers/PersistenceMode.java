@@ -0,0 +1,6 @@
+package controllers;
+
+public enum PersistenceMode {
+    SNAPSHOT,
+    JOURNAL
+}
@@ -0,0 +1,20 @@
+package controllers;
+
+/**
+ * Обход расписания хранилища назад по времени начала без разворачивания задач: курсор отдаёт только
+ * id, начало и конец текущей записи. Курсор, полученный от TaskStore.scheduleBefore, стоит перед первой
+ * записью, previous переходит к следующей более ранней. Хранилище нельзя менять, пока курсор в работе.
+ */
+public interface ScheduleCursor {
+
+    /**
+     * Переходит к предыдущей записи расписания. Возвращает false, если записей раньше нет.
+     */
+    boolean previous();
+
+    int id();
+
+    long startMinute();
+
+    long endMinute();
+}
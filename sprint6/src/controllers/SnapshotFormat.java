@@ -0,0 +1,6 @@
+package controllers;
+
+public enum SnapshotFormat {
+    CSV,
+    BINARY
+}
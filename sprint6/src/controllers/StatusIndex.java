@@ -0,0 +1,307 @@
+package controllers;
+
+import model.Status;
+import model.Task;
+import model.TaskType;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntConsumer;
+
+/**
+ * Вторичный индекс задач по типу и статусу. Индекс хранит только id, задачи при чтении берутся
+ * из хранилища, поэтому ссылок на задачи индекс не держит. Статус запоминается в момент индексации,
+ * задачу, изменённую на месте, нужно проиндексировать заново через put.
+ * <p>
+ * Однопоточный индекс держит id во множествах с открытой адресацией на ByteBuffer, для хранилища вне кучи
+ * буферы тоже выделяются вне кучи. Прежний статус ищется по трём множествам типа. Потокобезопасный индекс
+ * построен на ConcurrentHashMap и меняет множества внутри compute по id.
+ */
+final class StatusIndex {
+
+    private static final TaskType[] TYPES = TaskType.values();
+    private static final Status[] STATUSES = Status.values();
+
+    private final Map<Integer, Status> statuses;
+    private final IdSet[][] buckets = new IdSet[TYPES.length][STATUSES.length];
+
+    StatusIndex(boolean concurrent) {
+        this(concurrent, false);
+    }
+
+    StatusIndex(boolean concurrent, boolean direct) {
+        this.statuses = concurrent ? new ConcurrentHashMap<>() : null;
+        for (TaskType type : TYPES) {
+            for (Status status : STATUSES) {
+                buckets[type.ordinal()][status.ordinal()] = concurrent ? new ConcurrentIdSet() : new BufferIdSet(direct);
+            }
+        }
+    }
+
+    void put(Task task) {
+        IdSet[] byStatus = buckets[task.getTaskType().ordinal()];
+        Status status = task.getStatus();
+        if (statuses == null) {
+            for (IdSet bucket : byStatus) {
+                bucket.remove(task.getId());
+            }
+            byStatus[status.ordinal()].add(task.getId());
+            return;
+        }
+        statuses.compute(task.getId(), (id, oldStatus) -> {
+            if (oldStatus != null && oldStatus != status) {
+                byStatus[oldStatus.ordinal()].remove(id);
+            }
+            byStatus[status.ordinal()].add(id);
+            return status;
+        });
+    }
+
+    void remove(Task task) {
+        IdSet[] byStatus = buckets[task.getTaskType().ordinal()];
+        if (statuses == null) {
+            for (IdSet bucket : byStatus) {
+                bucket.remove(task.getId());
+            }
+            return;
+        }
+        statuses.computeIfPresent(task.getId(), (id, status) -> {
+            byStatus[status.ordinal()].remove(id);
+            return null;
+        });
+    }
+
+    void clear() {
+        for (TaskType type : TYPES) {
+            clear(type);
+        }
+    }
+
+    void clear(TaskType type) {
+        for (IdSet bucket : buckets[type.ordinal()]) {
+            if (statuses != null) {
+                bucket.forEach(statuses::remove);
+            }
+            bucket.clear();
+        }
+    }
+
+    /**
+     * Задачи, которых уже нет в хранилище, пропускаются: потокобезопасный менеджер читает индекс
+     * без блокировки, и задачу могут удалить между чтением id и чтением задачи.
+     */
+    List<Task> get(TaskStore store, TaskType type, Status status) {
+        List<Task> result = new ArrayList<>();
+        collect(store, type, status, result);
+        return result;
+    }
+
+    List<Task> get(TaskStore store, TaskType type) {
+        List<Task> result = new ArrayList<>();
+        for (Status status : STATUSES) {
+            collect(store, type, status, result);
+        }
+        return result;
+    }
+
+    List<Task> get(TaskStore store, Status status) {
+        List<Task> result = new ArrayList<>();
+        for (TaskType type : TYPES) {
+            collect(store, type, status, result);
+        }
+        return result;
+    }
+
+    private void collect(TaskStore store, TaskType type, Status status, List<Task> result) {
+        buckets[type.ordinal()][status.ordinal()].forEach(id -> {
+            Task task = store.get(type, id);
+            if (task != null) {
+                result.add(task);
+            }
+        });
+    }
+
+    private interface IdSet {
+        void add(int id);
+
+        void remove(int id);
+
+        void clear();
+
+        void forEach(IntConsumer action);
+    }
+
+    private static final class ConcurrentIdSet implements IdSet {
+        private final Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void add(int id) {
+            ids.add(id);
+        }
+
+        @Override
+        public void remove(int id) {
+            ids.remove(id);
+        }
+
+        @Override
+        public void clear() {
+            ids.clear();
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            for (Integer id : ids) {
+                action.accept(id);
+            }
+        }
+    }
+
+    /**
+     * Множество id с открытой адресацией в ByteBuffer. Пустую ячейку обозначает Integer.MIN_VALUE, сам этот
+     * id хранится отдельным флагом. Ячейка выбирается по самому id, записи размещаются по Robin Hood, как
+     * в IntKeyMap, поэтому подряд идущие id лежат на своих местах и удаляются за O(1). Таблица растёт
+     * при заполнении больше чем на 3/4 и уменьшается вдвое, когда занято меньше 1/8 ячеек, поэтому обход
+     * в forEach стоит O(size), даже если множество было большим и опустело.
+     */
+    private static final class BufferIdSet implements IdSet {
+        private static final int EMPTY = Integer.MIN_VALUE;
+        private static final int MIN_CAPACITY = 16;
+
+        private final boolean direct;
+        private ByteBuffer cells;
+        private int mask;
+        private int size;
+        private boolean containsEmpty;
+
+        private BufferIdSet(boolean direct) {
+            this.direct = direct;
+            allocate(MIN_CAPACITY);
+        }
+
+        @Override
+        public void add(int id) {
+            if (id == EMPTY) {
+                containsEmpty = true;
+                return;
+            }
+            if (find(id) >= 0) {
+                return;
+            }
+            insert(id);
+            if (++size > capacity() / 4 * 3) {
+                rehash(capacity() << 1);
+            }
+        }
+
+        @Override
+        public void remove(int id) {
+            if (id == EMPTY) {
+                containsEmpty = false;
+                return;
+            }
+            int hole = find(id);
+            if (hole < 0) {
+                return;
+            }
+            size--;
+            int next = (hole + 1) & mask;
+            while (cell(next) != EMPTY && distance(next) > 0) {
+                setCell(hole, cell(next));
+                hole = next;
+                next = (next + 1) & mask;
+            }
+            setCell(hole, EMPTY);
+            if (capacity() > MIN_CAPACITY && size < capacity() / 8) {
+                rehash(capacity() >> 1);
+            }
+        }
+
+        @Override
+        public void clear() {
+            size = 0;
+            containsEmpty = false;
+            allocate(MIN_CAPACITY);
+        }
+
+        @Override
+        public void forEach(IntConsumer action) {
+            if (containsEmpty) {
+                action.accept(EMPTY);
+            }
+            for (int index = 0; index < capacity(); index++) {
+                int cell = cell(index);
+                if (cell != EMPTY) {
+                    action.accept(cell);
+                }
+            }
+        }
+
+        private int capacity() {
+            return mask + 1;
+        }
+
+        private int distance(int index) {
+            return (index - cell(index)) & mask;
+        }
+
+        private int find(int id) {
+            int index = id & mask;
+            for (int distance = 0; cell(index) != EMPTY && distance(index) >= distance; distance++) {
+                if (cell(index) == id) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        private void insert(int id) {
+            int index = id & mask;
+            for (int distance = 0; cell(index) != EMPTY; distance++) {
+                int cellDistance = distance(index);
+                if (cellDistance < distance) {
+                    int displaced = cell(index);
+                    setCell(index, id);
+                    id = displaced;
+                    distance = cellDistance;
+                }
+                index = (index + 1) & mask;
+            }
+            setCell(index, id);
+        }
+
+        private int cell(int index) {
+            return cells.getInt(index * Integer.BYTES);
+        }
+
+        private void setCell(int index, int id) {
+            cells.putInt(index * Integer.BYTES, id);
+        }
+
+        private void rehash(int capacity) {
+            ByteBuffer oldCells = cells;
+            int oldCapacity = capacity();
+            allocate(capacity);
+            for (int index = 0; index < oldCapacity; index++) {
+                int id = oldCells.getInt(index * Integer.BYTES);
+                if (id != EMPTY) {
+                    insert(id);
+                }
+            }
+        }
+
+        private void allocate(int capacity) {
+            cells = direct ? ByteBuffer.allocateDirect(capacity * Integer.BYTES)
+                    : ByteBuffer.allocate(capacity * Integer.BYTES);
+            mask = capacity - 1;
+            for (int index = 0; index < capacity; index++) {
+                setCell(index, EMPTY);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package controllers;
+
+public enum StorageEngine {
+    IN_MEMORY,
+    JOURNALED_FILE,
+    OFF_HEAP
+}
@@ -0,0 +1,160 @@
+package controllers;
+
+import model.Task;
+import model.TaskType;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Задачи одного типа из TaskStore в виде Map по id, чтобы менеджер работал с хранилищем как с обычными
+ * таблицами. Перегрузки с ключом int обращаются к хранилищу без упаковки id. Представления keySet,
+ * values и entrySet живые, удаление через их итераторы не поддерживается.
+ */
+final class StoreMap<T extends Task> extends AbstractMap<Integer, T> {
+
+    private final TaskStore store;
+    private final TaskType type;
+
+    StoreMap(TaskStore store, TaskType type) {
+        this.store = store;
+        this.type = type;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int key) {
+        return (T) store.get(type, key);
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T put(int key, T value) {
+        if (value.getId() != key || value.getTaskType() != type) {
+            throw new IllegalArgumentException("Задача " + value.getTaskType() + " с id " + value.getId()
+                    + " не может храниться как " + type + " с id " + key);
+        }
+        return (T) store.put(value);
+    }
+
+    @SuppressWarnings("unchecked")
+    public T remove(int key) {
+        return (T) store.remove(type, key);
+    }
+
+    @Override
+    public T get(Object key) {
+        return key instanceof Integer ? get((int) (Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public T put(Integer key, T value) {
+        return put((int) key, value);
+    }
+
+    @Override
+    public T remove(Object key) {
+        return key instanceof Integer ? remove((int) (Integer) key) : null;
+    }
+
+    @Override
+    public int size() {
+        return store.size(type);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return store.size(type) == 0;
+    }
+
+    @Override
+    public void clear() {
+        store.clear(type);
+    }
+
+    @Override
+    public Set<Integer> keySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Integer> iterator() {
+                Iterator<Task> tasks = store.scan(type).iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return tasks.hasNext();
+                    }
+
+                    @Override
+                    public Integer next() {
+                        return tasks.next().getId();
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public int size() {
+                return store.size(type);
+            }
+        };
+    }
+
+    @Override
+    public Collection<T> values() {
+        return new AbstractCollection<>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Iterator<T> iterator() {
+                return (Iterator<T>) store.scan(type).iterator();
+            }
+
+            @Override
+            public int size() {
+                return store.size(type);
+            }
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<Integer, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<Integer, T>> iterator() {
+                Iterator<T> tasks = values().iterator();
+                return new Iterator<>() {
+                    @Override
+                    public boolean hasNext() {
+                        return tasks.hasNext();
+                    }
+
+                    @Override
+                    public Map.Entry<Integer, T> next() {
+                        T task = tasks.next();
+                        return new SimpleImmutableEntry<>(task.getId(), task);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return store.size(type);
+            }
+        };
+    }
+}
@@ -2,7 +2,10 @@ package controllers;
 
 import model.*;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.NavigableSet;
 
 public interface TaskManager {
 
@@ -12,6 +15,12 @@ public interface TaskManager {
 
     void addEpic(Epic newEpic);
 
+    void addAll(Collection<? extends Task> newTasks);
+
+    void updateAll(Collection<? extends Task> updatedTasks);
+
+    void removeAll(Collection<Integer> ids);
+
     void removeAllTasks();
 
     void removeAllSubtasks();
@@ -30,8 +39,21 @@ public interface TaskManager {
 
     Subtask getSubtaskById(int id);
 
+    void recordView(int id);
+
+    /**
+     * Задача любого типа по id без записи в историю просмотров или null, если задачи нет.
+     */
+    Task findTask(int id);
+
     List<Subtask> getListOfSubtasksByOneEpic(int id);
 
+    List<Task> getListOfTasksByStatus(Status status);
+
+    List<Task> getListOfTasksByType(TaskType type);
+
+    List<Task> getListOfTasksByTypeAndStatus(TaskType type, Status status);
+
     void removeTaskById(int taskId);
 
     void removeEpicById(int epicId);
@@ -52,5 +74,25 @@ public interface TaskManager {
 
     List<Task> getPrioritizedTasks();
 
+    NavigableSet<Task> getPrioritizedTasksView();
+
+    NavigableSet<Task> getPrioritizedTasksView(LocalDateTime from, LocalDateTime to);
+
+    List<Task> getPrioritizedTasksPage(Task cursor, int limit);
+
+    List<Task> getTasksBetween(LocalDateTime from, LocalDateTime to);
+
+    int countTasksInRange(LocalDateTime from, LocalDateTime to);
+
+    LocalDateTime getNextFreeSlot(long duration, LocalDateTime after);
+
     void validate(Task newTask);
+
+    void beginTransaction();
+
+    void commit();
+
+    void rollback();
+
+    void inTransaction(Runnable work);
 }
\ No newline at end of file
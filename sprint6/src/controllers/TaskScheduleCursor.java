@@ -0,0 +1,42 @@
+package controllers;
+
+import model.Task;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+
+/**
+ * Курсор по расписанию хранилищ в куче: задачи там уже лежат объектами, поэтому курсор просто идёт
+ * обратным итератором по headSet и читает поля текущей задачи.
+ */
+final class TaskScheduleCursor implements ScheduleCursor {
+
+    private final Iterator<Task> iterator;
+    private Task current;
+
+    TaskScheduleCursor(NavigableSet<Task> byStartTime, long startMinute) {
+        this.iterator = byStartTime.headSet(InMemoryTaskStore.startTimeBound(startMinute, Integer.MIN_VALUE), false)
+                .descendingIterator();
+    }
+
+    @Override
+    public boolean previous() {
+        current = iterator.hasNext() ? iterator.next() : null;
+        return current != null;
+    }
+
+    @Override
+    public int id() {
+        return current.getId();
+    }
+
+    @Override
+    public long startMinute() {
+        return current.getStartMinute();
+    }
+
+    @Override
+    public long endMinute() {
+        return current.getEndMinute();
+    }
+}
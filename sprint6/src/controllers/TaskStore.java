@@ -0,0 +1,46 @@
+package controllers;
+
+import model.Task;
+import model.TaskType;
+
+import java.util.Collection;
+import java.util.NavigableSet;
+
+/**
+ * Хранилище задач под InMemoryTaskManager. Задачи хранятся по типу и id, put заменяет задачу с тем же id.
+ * Задачи и подзадачи, кроме того, упорядочены по времени начала, затем по id, задачи без времени идут
+ * последними; byStartTime отдаёт этот порядок целиком, диапазон выбирается через subSet и tailSet.
+ * Хранилище само поддерживает порядок при put, remove и clear, менять время начала у задачи, которая
+ * уже лежит в хранилище, нельзя.
+ * <p>
+ * byStartTime - представление только для чтения: add, remove, pollFirst и pollLast бросают
+ * UnsupportedOperationException, порядок меняется только через put, remove и clear хранилища.
+ * scheduleBefore обходит тот же порядок назад без разворачивания задач, по нему менеджер проверяет
+ * пересечения.
+ */
+public interface TaskStore {
+
+    Task get(TaskType type, int id);
+
+    Task put(Task task);
+
+    Task remove(TaskType type, int id);
+
+    Collection<Task> scan(TaskType type);
+
+    int size(TaskType type);
+
+    void clear(TaskType type);
+
+    NavigableSet<Task> byStartTime();
+
+    /**
+     * Курсор по задачам и подзадачам, которые начинаются раньше startMinute, от поздних к ранним.
+     */
+    ScheduleCursor scheduleBefore(long startMinute);
+
+    /**
+     * Держит ли хранилище задачи вне кучи. Менеджер по этому признаку выделяет вне кучи и свои индексы.
+     */
+    boolean offHeap();
+}
@@ -0,0 +1,319 @@
+package http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controllers.ConcurrentTaskManager;
+import controllers.Managers;
+import controllers.TaskManager;
+import exceptions.CollisionTaskException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * REST-доступ к менеджеру задач поверх встроенного HttpServer. Каждый запрос обрабатывается в своём
+ * виртуальном потоке. ConcurrentTaskManager вызывается напрямую, любой другой менеджер сервер
+ * вызывает только под своей блокировкой, по одному запросу за раз. Id подзадач эпика в ответе берутся
+ * через getListOfSubtasksByOneEpic, то есть под блокировкой менеджера, а не из живого эпика.
+ * <p>
+ * /tasks, /subtasks, /epics: GET список или GET /{id}, POST без id создаёт задачу (201), POST с id
+ * обновляет существующую задачу этого типа (200) или отвечает 404, DELETE удаляет все задачи типа или
+ * DELETE /{id} одну. GET /epics/{id}/subtasks, GET /history, GET /prioritized. По умолчанию сервер
+ * слушает только loopback.
+ */
+public class HttpTaskServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8080;
+
+    private static final String JSON = "application/json; charset=utf-8";
+
+    private final TaskManager manager;
+    private final ReentrantLock managerLock;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public HttpTaskServer(TaskManager manager) throws IOException {
+        this(manager, new InetSocketAddress(InetAddress.getLoopbackAddress(), DEFAULT_PORT));
+    }
+
+    public HttpTaskServer(TaskManager manager, InetSocketAddress address) throws IOException {
+        this.manager = manager;
+        this.managerLock = manager instanceof ConcurrentTaskManager ? null : new ReentrantLock();
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/tasks", exchange -> handle(exchange, "tasks", TaskType.TASK));
+        server.createContext("/subtasks", exchange -> handle(exchange, "subtasks", TaskType.SUBTASK));
+        server.createContext("/epics", exchange -> handle(exchange, "epics", TaskType.EPIC));
+        server.createContext("/history", exchange -> handle(exchange, "history", null));
+        server.createContext("/prioritized", exchange -> handle(exchange, "prioritized", null));
+    }
+
+    public static void main(String[] args) throws IOException {
+        HttpTaskServer server = new HttpTaskServer(Managers.getDefaultConcurrent());
+        server.start();
+        System.out.println("HTTP-сервер запущен на порту " + server.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    private void handle(HttpExchange exchange, String resource, TaskType type) throws IOException {
+        int status;
+        String body;
+        String requestBody = exchange.getRequestMethod().equals("POST") ? readBody(exchange) : null;
+        if (managerLock != null) {
+            managerLock.lock();
+        }
+        try {
+            String[] path = exchange.getRequestURI().getPath().substring(1).split("/");
+            String method = exchange.getRequestMethod();
+            if (!path[0].equals(resource)) {
+                throw new RouteException(404);
+            }
+            if (type == null) {
+                if (path.length != 1 || !method.equals("GET")) {
+                    throw new RouteException(path.length != 1 ? 404 : 405);
+                }
+                List<Task> tasks = resource.equals("history") ? manager.getHistory() : manager.getPrioritizedTasks();
+                status = 200;
+                body = TaskJson.toJson(tasks, this::subtaskIdsOf);
+            } else {
+                switch (method) {
+                    case "GET":
+                        body = get(type, path);
+                        status = 200;
+                        break;
+                    case "POST":
+                        if (path.length != 1) {
+                            throw new RouteException(404);
+                        }
+                        Task task = TaskJson.fromJson(requestBody, type);
+                        status = task.getId() == 0 ? 201 : 200;
+                        body = TaskJson.toJson(save(task), this::subtaskIdsOf);
+                        break;
+                    case "DELETE":
+                        delete(type, path);
+                        body = null;
+                        status = 204;
+                        break;
+                    default:
+                        throw new RouteException(405);
+                }
+            }
+        } catch (RouteException e) {
+            status = e.status;
+            body = null;
+        } catch (CollisionTaskException e) {
+            status = 406;
+            body = error(e);
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e);
+        } catch (RuntimeException e) {
+            status = 500;
+            body = error(e);
+        } finally {
+            if (managerLock != null) {
+                managerLock.unlock();
+            }
+        }
+        send(exchange, status, body);
+    }
+
+    private String get(TaskType type, String[] path) {
+        if (path.length == 1) {
+            switch (type) {
+                case EPIC:
+                    return TaskJson.toJson(manager.getListOfEpics(), this::subtaskIdsOf);
+                case SUBTASK:
+                    return TaskJson.toJson(manager.getListOfSubtasks());
+                default:
+                    return TaskJson.toJson(manager.getListOfTasks());
+            }
+        }
+        int id = id(path[1]);
+        if (path.length == 3 && type == TaskType.EPIC && path[2].equals("subtasks")) {
+            return TaskJson.toJson(subtasksOf(id));
+        }
+        if (path.length != 2) {
+            throw new RouteException(404);
+        }
+        Task task;
+        switch (type) {
+            case EPIC:
+                task = manager.getEpicById(id);
+                break;
+            case SUBTASK:
+                task = manager.getSubtaskById(id);
+                break;
+            default:
+                task = manager.getTaskById(id);
+        }
+        if (task == null) {
+            throw new RouteException(404);
+        }
+        return TaskJson.toJson(task, this::subtaskIdsOf);
+    }
+
+    private Task save(Task task) {
+        boolean isNew = task.getId() == 0;
+        if (!isNew) {
+            existing(task.getTaskType(), task.getId());
+        }
+        switch (task.getTaskType()) {
+            case EPIC:
+                if (isNew) {
+                    manager.addEpic((Epic) task);
+                    return task;
+                }
+                Epic epic = new Epic(task.getName(), task.getDescription(), task.getId(), task.getStatus(),
+                        subtasksOf(task.getId()).stream().map(Task::getId).toList());
+                manager.updateEpic(epic);
+                return epic;
+            case SUBTASK:
+                existing(TaskType.EPIC, ((Subtask) task).getEpicId());
+                if (isNew) {
+                    manager.addSubtask((Subtask) task);
+                } else {
+                    manager.updateSubtask((Subtask) task);
+                }
+                return task;
+            default:
+                if (isNew) {
+                    manager.addTask(task);
+                } else {
+                    manager.updateTask(task);
+                }
+                return task;
+        }
+    }
+
+    private void delete(TaskType type, String[] path) {
+        if (path.length == 1) {
+            switch (type) {
+                case EPIC:
+                    manager.removeAllEpics();
+                    break;
+                case SUBTASK:
+                    manager.removeAllSubtasks();
+                    break;
+                default:
+                    manager.removeAllTasks();
+            }
+            return;
+        }
+        if (path.length != 2) {
+            throw new RouteException(404);
+        }
+        int id = id(path[1]);
+        existing(type, id);
+        switch (type) {
+            case EPIC:
+                manager.removeEpicById(id);
+                break;
+            case SUBTASK:
+                manager.removeSubtaskById(id);
+                break;
+            default:
+                manager.removeTaskById(id);
+        }
+    }
+
+    /**
+     * Проверяет, что задача с таким id есть и имеет нужный тип, иначе отвечает 404. В историю
+     * просмотров проверка не попадает.
+     */
+    private void existing(TaskType type, int id) {
+        Task task = manager.findTask(id);
+        if (task == null || task.getTaskType() != type) {
+            throw new RouteException(404);
+        }
+    }
+
+    private List<Subtask> subtasksOf(int epicId) {
+        existing(TaskType.EPIC, epicId);
+        return manager.getListOfSubtasksByOneEpic(epicId);
+    }
+
+    private List<Integer> subtaskIdsOf(Epic epic) {
+        List<Subtask> epicSubtasks = manager.getListOfSubtasksByOneEpic(epic.getId());
+        List<Integer> subtaskIds = new ArrayList<>(epicSubtasks.size());
+        for (Subtask subtask : epicSubtasks) {
+            subtaskIds.add(subtask.getId());
+        }
+        return subtaskIds;
+    }
+
+    private static int id(String segment) {
+        try {
+            return Integer.parseInt(segment);
+        } catch (NumberFormatException e) {
+            throw new RouteException(404);
+        }
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String error(RuntimeException e) {
+        return "{\"error\":" + TaskJson.quote(String.valueOf(e.getMessage())) + "}";
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        try (exchange) {
+            if (body == null) {
+                exchange.sendResponseHeaders(status, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static class RouteException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        private RouteException(int status) {
+            super(null, null, false, false);
+            this.status = status;
+        }
+    }
+}
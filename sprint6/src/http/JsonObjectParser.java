@@ -0,0 +1,214 @@
+package http;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбор тела запроса в JSON. Объекты становятся Map, массивы List, строки String, целые числа Long,
+ * дробные Double. Ошибки синтаксиса бросают IllegalArgumentException с позицией символа.
+ */
+final class JsonObjectParser {
+
+    private final String json;
+    private int position;
+
+    private JsonObjectParser(String json) {
+        this.json = json;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parse(String json) {
+        JsonObjectParser parser = new JsonObjectParser(json);
+        parser.skipWhitespace();
+        if (parser.peek() != '{') {
+            throw parser.error("ожидался объект");
+        }
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.position != json.length()) {
+            throw parser.error("лишние символы после объекта");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        char c = peek();
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return readNumber();
+                }
+                throw error("неожиданный символ '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new HashMap<>();
+        position++;
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("ожидалось имя поля");
+            }
+            String key = readString();
+            skipWhitespace();
+            if (next() != ':') {
+                throw error("ожидалось ':'");
+            }
+            object.put(key, readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw error("ожидалось ',' или '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        position++;
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            char c = next();
+            if (c == ']') {
+                return array;
+            }
+            if (c != ',') {
+                throw error("ожидалось ',' или ']'");
+            }
+        }
+    }
+
+    private String readString() {
+        position++;
+        StringBuilder out = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return out.toString();
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    out.append(escaped);
+                    break;
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'f':
+                    out.append('\f');
+                    break;
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > json.length()) {
+                        throw error("неполная escape-последовательность");
+                    }
+                    try {
+                        out.append((char) Integer.parseInt(json, position, position + 4, 16));
+                    } catch (NumberFormatException e) {
+                        throw error("некорректная escape-последовательность");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("некорректная escape-последовательность");
+            }
+        }
+    }
+
+    private Object readNumber() {
+        int start = position;
+        boolean fraction = false;
+        while (position < json.length()) {
+            char c = json.charAt(position);
+            if (c == '.' || c == 'e' || c == 'E') {
+                fraction = true;
+            } else if (!(c >= '0' && c <= '9') && c != '-' && c != '+') {
+                break;
+            }
+            position++;
+        }
+        String number = json.substring(start, position);
+        try {
+            return fraction ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw error("некорректное число " + number);
+        }
+    }
+
+    private void expect(String literal) {
+        if (!json.startsWith(literal, position)) {
+            throw error("ожидалось " + literal);
+        }
+        position += literal.length();
+    }
+
+    private void skipWhitespace() {
+        while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= json.length()) {
+            throw error("неожиданный конец");
+        }
+        return json.charAt(position);
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Некорректный JSON, позиция " + position + ": " + message);
+    }
+}
@@ -0,0 +1,205 @@
+package http;
+
+import model.Epic;
+import model.Status;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Перевод задач в JSON и обратно без сторонних библиотек. Задача пишется плоским объектом с полем
+ * type, даты в формате ISO-8601, у подзадачи есть поле epic, у эпика массив id подзадач subtasks.
+ */
+public final class TaskJson {
+
+    private TaskJson() {
+    }
+
+    public static String toJson(Task task) {
+        return toJson(task, Epic::getSubtaskIds);
+    }
+
+    public static String toJson(Collection<? extends Task> tasks) {
+        return toJson(tasks, Epic::getSubtaskIds);
+    }
+
+    /**
+     * subtaskIds выдаёт id подзадач эпика. Сервер берёт их через менеджер под его блокировкой, чтобы не
+     * читать состав эпика, который в это время меняет другой поток.
+     */
+    public static String toJson(Task task, Function<Epic, List<Integer>> subtaskIds) {
+        StringBuilder out = new StringBuilder(160);
+        write(out, task, subtaskIds);
+        return out.toString();
+    }
+
+    public static String toJson(Collection<? extends Task> tasks, Function<Epic, List<Integer>> subtaskIds) {
+        StringBuilder out = new StringBuilder(16 + tasks.size() * 160);
+        out.append('[');
+        boolean first = true;
+        for (Task task : tasks) {
+            if (!first) {
+                out.append(',');
+            }
+            write(out, task, subtaskIds);
+            first = false;
+        }
+        return out.append(']').toString();
+    }
+
+    /**
+     * Собирает задачу заданного типа из JSON-объекта. Поле type, если оно есть, должно совпадать с типом,
+     * id по умолчанию 0, статус NEW. Список подзадач эпика не читается: им управляет менеджер.
+     */
+    public static Task fromJson(String json, TaskType type) {
+        Map<String, Object> fields = JsonObjectParser.parse(json);
+        Object declaredType = fields.get("type");
+        if (declaredType != null && !type.name().equals(declaredType)) {
+            throw new IllegalArgumentException("Ожидалась задача типа " + type + ", получено: " + declaredType);
+        }
+        String name = string(fields, "name");
+        String description = string(fields, "description");
+        int id = intNumber(fields, "id");
+        Status status = fields.get("status") == null ? Status.NEW : Status.valueOf(string(fields, "status"));
+        LocalDateTime startTime = dateTime(fields, "startTime");
+        long duration = number(fields, "duration", 0);
+        switch (type) {
+            case EPIC:
+                return new Epic(name, description, id, status);
+            case SUBTASK:
+                if (fields.get("epic") == null) {
+                    throw new IllegalArgumentException("У подзадачи не указан эпик");
+                }
+                return new Subtask(name, description, id, status, intNumber(fields, "epic"), startTime, duration);
+            default:
+                return new Task(name, description, id, status, startTime, duration);
+        }
+    }
+
+    static String quote(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2);
+        writeString(out, value);
+        return out.toString();
+    }
+
+    private static void write(StringBuilder out, Task task, Function<Epic, List<Integer>> subtaskIds) {
+        out.append("{\"id\":").append(task.getId());
+        out.append(",\"type\":\"").append(task.getTaskType().name());
+        out.append("\",\"name\":");
+        writeString(out, task.getName());
+        out.append(",\"status\":\"").append(task.getStatus().name());
+        out.append("\",\"description\":");
+        writeString(out, task.getDescription());
+        out.append(",\"startTime\":");
+        writeDateTime(out, task.getStartTime());
+        out.append(",\"endTime\":");
+        writeDateTime(out, task.getEndTime());
+        out.append(",\"duration\":").append(task.getDuration());
+        if (task.getTaskType() == TaskType.SUBTASK) {
+            out.append(",\"epic\":").append(((Subtask) task).getEpicId());
+        } else if (task.getTaskType() == TaskType.EPIC) {
+            out.append(",\"subtasks\":[");
+            List<Integer> ids = subtaskIds.apply((Epic) task);
+            for (int i = 0; i < ids.size(); i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(ids.get(i));
+            }
+            out.append(']');
+        }
+        out.append('}');
+    }
+
+    private static void writeDateTime(StringBuilder out, LocalDateTime dateTime) {
+        if (dateTime == null) {
+            out.append("null");
+        } else {
+            out.append('"').append(dateTime).append('"');
+        }
+    }
+
+    private static void writeString(StringBuilder out, String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00").append(Character.forDigit(c >> 4, 16)).append(Character.forDigit(c & 15, 16));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    private static String string(Map<String, Object> fields, String key) {
+        Object value = fields.get(key);
+        if (value != null && !(value instanceof String)) {
+            throw new IllegalArgumentException("Поле " + key + " должно быть строкой");
+        }
+        return (String) value;
+    }
+
+    private static long number(Map<String, Object> fields, String key, long defaultValue) {
+        Object value = fields.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Long)) {
+            throw new IllegalArgumentException("Поле " + key + " должно быть целым числом");
+        }
+        return (Long) value;
+    }
+
+    /**
+     * Id задачи и эпика должны помещаться в int, иначе приведение молча дало бы id другой задачи.
+     */
+    private static int intNumber(Map<String, Object> fields, String key) {
+        long value = number(fields, key, 0);
+        if (value != (int) value) {
+            throw new IllegalArgumentException("Поле " + key + " вне диапазона int: " + value);
+        }
+        return (int) value;
+    }
+
+    private static LocalDateTime dateTime(Map<String, Object> fields, String key) {
+        String value = string(fields, key);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректная дата в поле " + key + ": " + value);
+        }
+    }
+}
@@ -1,14 +1,16 @@
 package model;
 
-import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.time.LocalDateTime;
 import java.util.Objects;
+import java.util.function.IntConsumer;
 
 public class Epic extends Task {
 
-    private List<Integer> subtaskIds = new ArrayList<>();
-    private LocalDateTime endTime;
+    private long endMinute = EpochMinutes.NONE;
+
+    private final SubtaskLedger subtaskLedger = new SubtaskLedger();
 
     public Epic(String name, String description) {
         super(name, description);
@@ -20,17 +22,106 @@ public class Epic extends Task {
 
     public Epic(String name, String description, int id, Status status, List<Integer> subtaskIds) {
         super(name, description, id, status);
-        this.subtaskIds = subtaskIds != null ? new ArrayList<>(subtaskIds) : new ArrayList<>();
+        if (subtaskIds != null) {
+            for (int subtaskId : subtaskIds) {
+                subtaskLedger.addId(subtaskId);
+            }
+        }
     }
 
     public Epic(String name, String description, int id, Status status, LocalDateTime startTime, long duration,
                 LocalDateTime endTime) {
         super(name, description, id, status, startTime, duration);
-        this.endTime = endTime;
+        this.endMinute = EpochMinutes.of(endTime);
     }
 
+    /**
+     * Копия id подзадач в порядке добавления, изменения эпика в неё не попадают. Чтобы обойти id без
+     * копирования, есть forEachSubtaskId.
+     */
     public List<Integer> getSubtaskIds() {
-        return subtaskIds;
+        return subtaskLedger.ids();
+    }
+
+    /**
+     * Обходит id подзадач в порядке добавления без копирования и упаковки. Менять состав эпика
+     * во время обхода нельзя.
+     */
+    public void forEachSubtaskId(IntConsumer action) {
+        subtaskLedger.forEachId(action);
+    }
+
+    public void addSubtask(Subtask subtask) {
+        subtaskLedger.put(subtask);
+        refresh();
+    }
+
+    public void removeSubtask(Subtask subtask) {
+        subtaskLedger.remove(subtask.getId());
+        refresh();
+    }
+
+    public void updateSubtask(Subtask subtask) {
+        subtaskLedger.put(subtask);
+        refresh();
+    }
+
+    public void addSubtasks(Collection<Subtask> subtasks) {
+        updateSubtasks(subtasks);
+    }
+
+    public void updateSubtasks(Collection<Subtask> subtasks) {
+        for (Subtask subtask : subtasks) {
+            subtaskLedger.put(subtask);
+        }
+        refresh();
+    }
+
+    public void removeSubtasks(Collection<Subtask> subtasks) {
+        for (Subtask subtask : subtasks) {
+            subtaskLedger.remove(subtask.getId());
+        }
+        refresh();
+    }
+
+    public void clearSubtasks() {
+        subtaskLedger.clear();
+        refresh();
+    }
+
+    public void resetAggregates(Collection<Subtask> subtasks) {
+        subtaskLedger.forgetSubtasks();
+        for (Subtask subtask : subtasks) {
+            subtaskLedger.put(subtask);
+        }
+    }
+
+    public void refreshStatus() {
+        int includedCount = subtaskLedger.includedCount();
+        if (includedCount == subtaskLedger.newCount()) {
+            status = Status.NEW;
+        } else if (includedCount == subtaskLedger.doneCount()) {
+            status = Status.DONE;
+        } else {
+            status = Status.IN_PROGRESS;
+        }
+    }
+
+    public void refreshDateTime() {
+        if (subtaskLedger.includedCount() == 0) {
+            setDuration(0L);
+            setStartMinute(EpochMinutes.NONE);
+            setEndMinute(EpochMinutes.NONE);
+            return;
+        }
+        setStartMinute(subtaskLedger.firstStartMinute());
+        setEndMinute(subtaskLedger.lastEndMinute());
+        setDuration(subtaskLedger.duration());
+    }
+
+    private void refresh() {
+        refreshStatus();
+        refreshDateTime();
     }
 
     @Override
@@ -39,20 +130,25 @@ public class Epic extends Task {
     }
 
     @Override
-    public LocalDateTime getEndTime() {
-        return endTime;
+    public long getEndMinute() {
+        return endMinute;
+    }
+
+    public void setEndMinute(long endMinute) {
+        this.endMinute = endMinute;
+        resetEndTime();
     }
 
     @Override
     public String getEndTimeString() {
-        if (endTime == null) {
+        if (endMinute == EpochMinutes.NONE) {
             return "null";
         }
         return getEndTime().format(formatter);
     }
 
     public void setEndTime(LocalDateTime endTime) {
-        this.endTime = endTime;
+        setEndMinute(EpochMinutes.of(endTime));
     }
 
     @Override
@@ -77,6 +173,6 @@ public class Epic extends Task {
                     ", статус='" + status + '\'' +
                     ", дата начала='" + getStartTimeString() + '\'' +
                     ", продолжительность='" + duration + '\'' +
-                    ", id подзадач(и)='" + subtaskIds + '}' + '\'';
+                    ", id подзадач(и)='" + subtaskLedger.ids() + '}' + '\'';
         }
     }
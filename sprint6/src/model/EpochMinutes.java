@@ -0,0 +1,53 @@
+package model;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Время задач в минутах от 01.01.1970 00:00. Задачи хранят время начала и окончания в таком виде, чтобы
+ * сравнивать их без создания LocalDateTime. Секунды и наносекунды отбрасываются. Отсутствие времени
+ * обозначает NONE, оно больше любого реального значения, поэтому задачи без времени сортируются в конец.
+ */
+public final class EpochMinutes {
+
+    public static final long NONE = Long.MAX_VALUE;
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private EpochMinutes() {
+    }
+
+    public static long of(LocalDateTime dateTime) {
+        if (dateTime == null) {
+            return NONE;
+        }
+        return dateTime.toLocalDate().toEpochDay() * MINUTES_PER_DAY + dateTime.getHour() * 60L
+                + dateTime.getMinute();
+    }
+
+    /**
+     * Минута по календарной дате и времени без создания LocalDate: число дней от 01.01.1970 считается
+     * по формуле days-from-civil для пролептического григорианского календаря. Поля не проверяются,
+     * месяц 1-12, день в пределах месяца.
+     */
+    public static long of(int year, int month, int day, int hour, int minute) {
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(shiftedYear, 400);
+        int yearOfEra = shiftedYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        long epochDay = era * 146097L + dayOfEra - 719468;
+        return epochDay * MINUTES_PER_DAY + hour * 60L + minute;
+    }
+
+    public static LocalDateTime toDateTime(long epochMinute) {
+        if (epochMinute == NONE) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC);
+    }
+
+    static boolean isWholeMinute(LocalDateTime dateTime) {
+        return dateTime.getSecond() == 0 && dateTime.getNano() == 0;
+    }
+}
@@ -0,0 +1,55 @@
+package model;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Общая область вне кучи для больших SubtaskLedger. Блоки до 2 МБ нарезаются из прямых буферов по 8 МБ, поэтому
+ * прямое выделение происходит раз на много блоков, а не на каждый эпик; хвост буфера, в который блок
+ * не поместился, пропадает. Размеры блоков ledger-ов - степени
+ * двойки, умноженные на размер позиции, освобождённый блок кладётся в список своего размера и выдаётся
+ * следующему запросу того же размера. Блок освобождает сам ledger при расширении или Cleaner, когда ledger
+ * становится недостижим. Память областью обратно не отдаётся.
+ */
+final class LedgerRegion {
+
+    private static final int CHUNK_SIZE = 8 << 20;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private static final Map<Integer, ArrayDeque<ByteBuffer>> freeBlocks = new HashMap<>();
+    private static ByteBuffer current;
+
+    private LedgerRegion() {
+    }
+
+    static synchronized ByteBuffer allocate(int bytes) {
+        ArrayDeque<ByteBuffer> free = freeBlocks.get(bytes);
+        if (free != null && !free.isEmpty()) {
+            return free.pop();
+        }
+        if (bytes > CHUNK_SIZE / 4) {
+            return ByteBuffer.allocateDirect(bytes);
+        }
+        if (current == null || current.remaining() < bytes) {
+            current = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        }
+        ByteBuffer block = current.slice(current.position(), bytes);
+        current.position(current.position() + bytes);
+        return block;
+    }
+
+    /**
+     * Вернёт блок в область, когда owner станет недостижим. Раньше блок возвращается через clean у результата,
+     * действие выполняется один раз.
+     */
+    static Cleaner.Cleanable releaseWhenUnreachable(Object owner, ByteBuffer block) {
+        return CLEANER.register(owner, () -> release(block));
+    }
+
+    private static synchronized void release(ByteBuffer block) {
+        freeBlocks.computeIfAbsent(block.capacity(), bytes -> new ArrayDeque<>()).push(block);
+    }
+}
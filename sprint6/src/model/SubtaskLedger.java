@@ -0,0 +1,406 @@
+package model;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Подзадачи эпика в порядке добавления. Ссылок на подзадачи ledger не держит: id и поля, по которым
+ * считаются статус и время эпика, лежат записями по позициям в одном ByteBuffer.
+ * Индекс с открытой адресацией в том же буфере находит позицию по id за O(1). Удалённая запись остаётся
+ * пустой позицией, записи уплотняются, когда пустых позиций становится больше живых, поэтому удаление
+ * в среднем O(1), а порядок обхода сохраняется. Id, известные только из конструктора эпика, хранятся
+ * без полей и в статус и время эпика не входят.
+ * <p>
+ * Самое раннее начало и самый поздний конец считаются деревьями отрезков над позициями: лист хранит
+ * время подзадачи на этой позиции, узел - минимум или максимум детей. Изменение одной подзадачи
+ * обновляет путь до корня за O(log n), ответ лежит в корне.
+ * <p>
+ * Буфер ёмкостью C позиций состоит из записей (C по 32 байта), ячеек индекса (2C по 8 байт)
+ * и двух деревьев (2C по 8 байт каждое). Небольшие ledger-ы живут в куче, с SHARED_CAPACITY позиций буфер
+ * берётся из общей области вне кучи LedgerRegion: таких ledger-ов мало, а весят они больше всего.
+ */
+final class SubtaskLedger {
+
+    private static final byte REMOVED = -1;
+    private static final byte ID_ONLY = 0;
+    private static final byte NEW = 1;
+    private static final byte DONE = 2;
+    private static final byte IN_PROGRESS = 3;
+
+    private static final int ID = 0;
+    private static final int STATE = 4;
+    private static final int DURATION = 8;
+    private static final int START_MINUTE = 16;
+    private static final int END_MINUTE = 24;
+    private static final int RECORD_SIZE = 32;
+    private static final int SLOT_SIZE = 8;
+    private static final int BYTES_PER_POSITION = RECORD_SIZE + 2 * SLOT_SIZE + 2 * 2 * Long.BYTES;
+
+    private static final int MIN_CAPACITY = 4;
+    private static final int SHARED_CAPACITY = 1024;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(0);
+    private Cleaner.Cleanable sharedBlock;
+    private int capacity;
+    private int length;
+    private int size;
+
+    private int slotsOffset;
+    private int mask = -1;
+    private int startTreeOffset;
+    private int endTreeOffset;
+
+    private int includedCount;
+    private int newCount;
+    private int doneCount;
+    private long duration;
+
+    int size() {
+        return size;
+    }
+
+    int includedCount() {
+        return includedCount;
+    }
+
+    int newCount() {
+        return newCount;
+    }
+
+    int doneCount() {
+        return doneCount;
+    }
+
+    long duration() {
+        return duration;
+    }
+
+    long firstStartMinute() {
+        return length == 0 ? EpochMinutes.NONE : startTree(1);
+    }
+
+    long lastEndMinute() {
+        long endMinute = length == 0 ? Long.MIN_VALUE : endTree(1);
+        return endMinute == Long.MIN_VALUE ? EpochMinutes.NONE : endMinute;
+    }
+
+    /**
+     * Запоминает id подзадачи без её полей. Уже известный id не меняется.
+     */
+    void addId(int id) {
+        if (find(id) < 0) {
+            append(id);
+        }
+    }
+
+    /**
+     * Добавляет подзадачу в конец или обновляет её поля на прежней позиции.
+     */
+    void put(Subtask subtask) {
+        int slot = find(subtask.getId());
+        int position;
+        if (slot < 0) {
+            position = append(subtask.getId());
+        } else {
+            position = slotPosition(slot) - 1;
+            exclude(position);
+        }
+        include(position, subtask);
+    }
+
+    void remove(int id) {
+        int slot = find(id);
+        if (slot < 0) {
+            return;
+        }
+        int position = slotPosition(slot) - 1;
+        exclude(position);
+        unindex(slot);
+        setState(position, REMOVED);
+        size--;
+        if (size == 0) {
+            length = 0;
+        } else if (length - size > size && length > MIN_CAPACITY) {
+            compact();
+        }
+    }
+
+    void clear() {
+        clearSlots();
+        length = 0;
+        size = 0;
+        clearAggregates();
+    }
+
+    /**
+     * Забывает поля всех подзадач, оставляя их id на прежних позициях.
+     */
+    void forgetSubtasks() {
+        for (int position = 0; position < length; position++) {
+            if (state(position) != REMOVED) {
+                setState(position, ID_ONLY);
+            }
+        }
+        clearAggregates();
+    }
+
+    void forEachId(IntConsumer action) {
+        for (int position = 0; position < length; position++) {
+            if (state(position) != REMOVED) {
+                action.accept(id(position));
+            }
+        }
+    }
+
+    List<Integer> ids() {
+        List<Integer> result = new ArrayList<>(size);
+        forEachId(result::add);
+        return Collections.unmodifiableList(result);
+    }
+
+    private void include(int position, Subtask subtask) {
+        Status status = subtask.getStatus();
+        byte state = status == Status.NEW ? NEW : status == Status.DONE ? DONE : IN_PROGRESS;
+        int record = position * RECORD_SIZE;
+        buffer.put(record + STATE, state);
+        buffer.putLong(record + DURATION, subtask.getDuration());
+        buffer.putLong(record + START_MINUTE, subtask.getStartMinute());
+        buffer.putLong(record + END_MINUTE, subtask.getEndMinute());
+        includedCount++;
+        if (state == NEW) {
+            newCount++;
+        } else if (state == DONE) {
+            doneCount++;
+        }
+        duration += subtask.getDuration();
+        updateTrees(position);
+    }
+
+    private void exclude(int position) {
+        byte state = state(position);
+        if (state <= ID_ONLY) {
+            return;
+        }
+        includedCount--;
+        if (state == NEW) {
+            newCount--;
+        } else if (state == DONE) {
+            doneCount--;
+        }
+        duration -= buffer.getLong(position * RECORD_SIZE + DURATION);
+        setState(position, ID_ONLY);
+        updateTrees(position);
+    }
+
+    /**
+     * Лист позиции без времени или без полей подзадачи не влияет на ответ: NONE в дереве минимумов
+     * и Long.MIN_VALUE в дереве максимумов.
+     */
+    private void updateTrees(int position) {
+        int node = position + capacity;
+        setLeaf(node, position);
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            setStartTree(node, Math.min(startTree(2 * node), startTree(2 * node + 1)));
+            setEndTree(node, Math.max(endTree(2 * node), endTree(2 * node + 1)));
+        }
+    }
+
+    private void rebuildTrees() {
+        for (int position = 0; position < capacity; position++) {
+            setLeaf(capacity + position, position);
+        }
+        for (int node = capacity - 1; node > 0; node--) {
+            setStartTree(node, Math.min(startTree(2 * node), startTree(2 * node + 1)));
+            setEndTree(node, Math.max(endTree(2 * node), endTree(2 * node + 1)));
+        }
+    }
+
+    private void setLeaf(int node, int position) {
+        int record = position * RECORD_SIZE;
+        long startMinute = buffer.getLong(record + START_MINUTE);
+        boolean scheduled = position < length && state(position) > ID_ONLY && startMinute != EpochMinutes.NONE;
+        setStartTree(node, scheduled ? startMinute : EpochMinutes.NONE);
+        setEndTree(node, scheduled ? buffer.getLong(record + END_MINUTE) : Long.MIN_VALUE);
+    }
+
+    private void clearAggregates() {
+        includedCount = 0;
+        newCount = 0;
+        doneCount = 0;
+        duration = 0L;
+        for (int node = 1; node < 2 * capacity; node++) {
+            setStartTree(node, EpochMinutes.NONE);
+            setEndTree(node, Long.MIN_VALUE);
+        }
+    }
+
+    private int append(int id) {
+        if (length == capacity) {
+            if (length - size >= length / 2 && length > 0) {
+                compact();
+            } else {
+                resize(Math.max(MIN_CAPACITY, capacity * 2));
+            }
+        }
+        int position = length++;
+        buffer.putInt(position * RECORD_SIZE + ID, id);
+        setState(position, ID_ONLY);
+        index(id, position);
+        size++;
+        return position;
+    }
+
+    /**
+     * Сдвигает живые записи к началу с сохранением порядка и перестраивает индекс.
+     */
+    private void compact() {
+        int target = 0;
+        for (int position = 0; position < length; position++) {
+            if (state(position) == REMOVED) {
+                continue;
+            }
+            if (target != position) {
+                buffer.put(target * RECORD_SIZE, buffer, position * RECORD_SIZE, RECORD_SIZE);
+            }
+            target++;
+        }
+        length = target;
+        reindex();
+        rebuildTrees();
+    }
+
+    /**
+     * Записи переносятся в новый буфер как есть, индекс и деревья строятся заново.
+     */
+    private void resize(int newCapacity) {
+        int bytes = newCapacity * BYTES_PER_POSITION;
+        ByteBuffer grown = newCapacity >= SHARED_CAPACITY ? LedgerRegion.allocate(bytes) : ByteBuffer.allocate(bytes);
+        grown.put(0, buffer, 0, length * RECORD_SIZE);
+        if (sharedBlock != null) {
+            sharedBlock.clean();
+        }
+        sharedBlock = newCapacity >= SHARED_CAPACITY ? LedgerRegion.releaseWhenUnreachable(this, grown) : null;
+        buffer = grown;
+        capacity = newCapacity;
+        slotsOffset = newCapacity * RECORD_SIZE;
+        mask = newCapacity * 2 - 1;
+        startTreeOffset = slotsOffset + newCapacity * 2 * SLOT_SIZE;
+        endTreeOffset = startTreeOffset + newCapacity * 2 * Long.BYTES;
+        reindex();
+        rebuildTrees();
+    }
+
+    private void reindex() {
+        clearSlots();
+        for (int position = 0; position < length; position++) {
+            if (state(position) != REMOVED) {
+                index(id(position), position);
+            }
+        }
+    }
+
+    private void clearSlots() {
+        for (int slot = 0; slot <= mask; slot++) {
+            setSlot(slot, 0, 0);
+        }
+    }
+
+    private int find(int id) {
+        if (size == 0) {
+            return -1;
+        }
+        int slot = id & mask;
+        for (int distance = 0; slotPosition(slot) != 0 && distance(slot) >= distance; distance++) {
+            if (slotId(slot) == id) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * В ячейке хранится позиция плюс один, ноль означает пустую ячейку. Записи размещаются по Robin Hood,
+     * как в IntKeyMap.
+     */
+    private void index(int id, int position) {
+        int slot = id & mask;
+        int value = position + 1;
+        for (int distance = 0; slotPosition(slot) != 0; distance++) {
+            int slotDistance = distance(slot);
+            if (slotDistance < distance) {
+                int displacedId = slotId(slot);
+                int displacedValue = slotPosition(slot);
+                setSlot(slot, id, value);
+                id = displacedId;
+                value = displacedValue;
+                distance = slotDistance;
+            }
+            slot = (slot + 1) & mask;
+        }
+        setSlot(slot, id, value);
+    }
+
+    /**
+     * Удаляет ячейку и сдвигает назад следующие смещённые записи, как в IntKeyMap.
+     */
+    private void unindex(int slot) {
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (slotPosition(next) != 0 && distance(next) > 0) {
+            setSlot(gap, slotId(next), slotPosition(next));
+            gap = next;
+            next = (next + 1) & mask;
+        }
+        setSlot(gap, 0, 0);
+    }
+
+    private int distance(int slot) {
+        return (slot - slotId(slot)) & mask;
+    }
+
+    private int id(int position) {
+        return buffer.getInt(position * RECORD_SIZE + ID);
+    }
+
+    private byte state(int position) {
+        return buffer.get(position * RECORD_SIZE + STATE);
+    }
+
+    private void setState(int position, byte state) {
+        buffer.put(position * RECORD_SIZE + STATE, state);
+    }
+
+    private int slotId(int slot) {
+        return buffer.getInt(slotsOffset + slot * SLOT_SIZE);
+    }
+
+    private int slotPosition(int slot) {
+        return buffer.getInt(slotsOffset + slot * SLOT_SIZE + Integer.BYTES);
+    }
+
+    private void setSlot(int slot, int id, int position) {
+        buffer.putInt(slotsOffset + slot * SLOT_SIZE, id);
+        buffer.putInt(slotsOffset + slot * SLOT_SIZE + Integer.BYTES, position);
+    }
+
+    private long startTree(int node) {
+        return buffer.getLong(startTreeOffset + node * Long.BYTES);
+    }
+
+    private void setStartTree(int node, long value) {
+        buffer.putLong(startTreeOffset + node * Long.BYTES, value);
+    }
+
+    private long endTree(int node) {
+        return buffer.getLong(endTreeOffset + node * Long.BYTES);
+    }
+
+    private void setEndTree(int node, long value) {
+        buffer.putLong(endTreeOffset + node * Long.BYTES, value);
+    }
+}
@@ -9,16 +9,19 @@ public class Task {
     protected String description;
     protected int id;
     protected Status status = Status.NEW;
-    protected LocalDateTime startTime;
+    private long startMinute = EpochMinutes.NONE;
     protected long duration;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
 
     public static DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
 
     public Task(String name, String description, LocalDateTime startTime, long duration) {
         this.name = name;
         this.description = description;
-        this.startTime = startTime;
         this.duration = duration;
+        this.startMinute = EpochMinutes.of(startTime);
+        this.startTime = wholeMinute(startTime);
     }
 
     public Task(String name, String description) {
@@ -39,8 +42,9 @@ public class Task {
         this.description = description;
         this.id = id;
         this.status = status;
-        this.startTime = startTime;
         this.duration = duration;
+        this.startMinute = EpochMinutes.of(startTime);
+        this.startTime = wholeMinute(startTime);
     }
 
     public String getName(){
@@ -80,18 +84,43 @@ public class Task {
     }
 
     public LocalDateTime getStartTime() {
+        if (startTime == null && startMinute != EpochMinutes.NONE) {
+            startTime = EpochMinutes.toDateTime(startMinute);
+        }
         return startTime;
     }
 
     public String getStartTimeString() {
-        if (startTime == null) {
+        if (startMinute == EpochMinutes.NONE) {
             return "null";
         }
-        return startTime.format(formatter);
+        return getStartTime().format(formatter);
     }
 
+    /**
+     * Время начала с точностью до минуты, секунды отбрасываются.
+     */
     public void setStartTime(LocalDateTime startTime) {
-        this.startTime = startTime;
+        setStartMinute(EpochMinutes.of(startTime));
+        this.startTime = wholeMinute(startTime);
+    }
+
+    /**
+     * Переданное время можно отдавать из getStartTime как есть, только если в нём нет секунд, иначе
+     * оно будет собрано заново из минут.
+     */
+    private static LocalDateTime wholeMinute(LocalDateTime startTime) {
+        return startTime != null && EpochMinutes.isWholeMinute(startTime) ? startTime : null;
+    }
+
+    public long getStartMinute() {
+        return startMinute;
+    }
+
+    public void setStartMinute(long startMinute) {
+        this.startMinute = startMinute;
+        startTime = null;
+        endTime = null;
     }
 
     public long getDuration() {
@@ -100,14 +129,27 @@ public class Task {
 
     public void setDuration(long duration) {
         this.duration = duration;
+        endTime = null;
+    }
+
+    public long getEndMinute() {
+        return startMinute != EpochMinutes.NONE ? startMinute + duration : EpochMinutes.NONE;
     }
 
     public LocalDateTime getEndTime() {
-        return startTime != null ? startTime.plusMinutes(duration) : null;
+        long endMinute = getEndMinute();
+        if (endTime == null && endMinute != EpochMinutes.NONE) {
+            endTime = EpochMinutes.toDateTime(endMinute);
+        }
+        return endTime;
+    }
+
+    protected void resetEndTime() {
+        endTime = null;
     }
 
     public String getEndTimeString() {
-        if (startTime != null) {
+        if (startMinute != EpochMinutes.NONE) {
             return getEndTime().format(formatter);
         }
         return null;
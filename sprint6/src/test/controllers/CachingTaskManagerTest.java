@@ -0,0 +1,140 @@
+package test.controllers;
+
+import controllers.*;
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingTaskManagerTest {
+    private CountingTaskManager backend;
+    private CachingTaskManager taskManager;
+
+    @BeforeEach
+    public void beforeEach() {
+        backend = new CountingTaskManager();
+        taskManager = new CachingTaskManager(backend, 16);
+    }
+
+    @Test
+    @DisplayName("Отдавать задачу из кэша и записывать просмотр в историю")
+    void cacheHitRecordsHistory() {
+        Task task = new Task("Task1", "Description1");
+        taskManager.addTask(task);
+        Epic epic = new Epic("Epic1", "Description2");
+        taskManager.addEpic(epic);
+
+        assertEquals(task, taskManager.getTaskById(task.getId()));
+        assertEquals(epic, taskManager.getEpicById(epic.getId()));
+        assertEquals(task, taskManager.getTaskById(task.getId()));
+        assertNull(taskManager.getSubtaskById(epic.getId()));
+
+        assertEquals(2, backend.loads);
+        assertEquals(2, taskManager.getHitCount());
+        assertEquals(2, taskManager.getMissCount());
+        assertEquals(List.of(epic, task), taskManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Вытеснять задачи и списки подзадач при изменениях")
+    void writesInvalidateCachedEntries() {
+        Epic epic = new Epic("Epic1", "Description1");
+        taskManager.addEpic(epic);
+        Subtask subtask = new Subtask("Subtask1", "Description2", 0, Status.NEW, epic.getId(),
+                LocalDateTime.of(2024, 1, 1, 10, 0), 30);
+        taskManager.addSubtask(subtask);
+        assertEquals(List.of(subtask), taskManager.getListOfSubtasksByOneEpic(epic.getId()));
+        assertEquals(Status.NEW, taskManager.getEpicById(epic.getId()).getStatus());
+
+        Subtask done = new Subtask("Subtask1", "Description2", subtask.getId(), Status.DONE, epic.getId(),
+                LocalDateTime.of(2024, 1, 1, 10, 0), 30);
+        taskManager.updateSubtask(done);
+        assertEquals(Status.DONE, taskManager.getSubtaskById(done.getId()).getStatus());
+        assertEquals(Status.DONE, taskManager.getListOfSubtasksByOneEpic(epic.getId()).getFirst().getStatus());
+
+        taskManager.removeEpicById(epic.getId());
+        assertNull(taskManager.getSubtaskById(done.getId()));
+        assertNull(taskManager.getEpicById(epic.getId()));
+        assertTrue(taskManager.getHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Вытеснять давно не используемые записи при переполнении")
+    void evictsLeastRecentlyUsed() {
+        taskManager = new CachingTaskManager(backend, 2);
+        Task first = new Task("Task1", "Description1");
+        Task second = new Task("Task2", "Description2");
+        Task third = new Task("Task3", "Description3");
+        taskManager.addAll(List.of(first, second, third));
+
+        taskManager.getTaskById(first.getId());
+        taskManager.getTaskById(second.getId());
+        taskManager.getTaskById(first.getId());
+        taskManager.getTaskById(third.getId());
+        taskManager.getTaskById(first.getId());
+        taskManager.getTaskById(second.getId());
+
+        assertEquals(2, taskManager.getEvictionCount());
+        assertEquals(2, taskManager.getHitCount());
+        assertEquals(4, backend.loads);
+        assertEquals(2, taskManager.getSize());
+    }
+
+    @Test
+    @DisplayName("Сбрасывать кэш при откате транзакции")
+    void rollbackClearsCache() {
+        Task task = new Task("Task1", "Description1");
+        taskManager.addTask(task);
+        taskManager.getTaskById(task.getId());
+
+        taskManager.beginTransaction();
+        taskManager.updateTask(new Task("Task2", "Description2", task.getId(), Status.DONE));
+        assertEquals(Status.DONE, taskManager.getTaskById(task.getId()).getStatus());
+        taskManager.rollback();
+
+        assertEquals(Status.NEW, taskManager.getTaskById(task.getId()).getStatus());
+        assertEquals(1, taskManager.getSize());
+    }
+
+    @Test
+    @DisplayName("Сбрасывать кэш, если транзакция прервана ошибкой")
+    void failedTransactionClearsCacheOnError() {
+        Task task = new Task("Task1", "Description1");
+        taskManager.addTask(task);
+
+        assertThrows(AssertionError.class, () -> taskManager.inTransaction(() -> {
+            taskManager.updateTask(new Task("Task2", "Description2", task.getId(), Status.DONE));
+            assertEquals(Status.DONE, taskManager.getTaskById(task.getId()).getStatus());
+            throw new AssertionError("Ошибка внутри транзакции");
+        }));
+
+        assertEquals(Status.NEW, taskManager.getTaskById(task.getId()).getStatus());
+    }
+
+    private static class CountingTaskManager extends InMemoryTaskManager {
+        private int loads;
+
+        @Override
+        public Task getTaskById(int id) {
+            loads++;
+            return super.getTaskById(id);
+        }
+
+        @Override
+        public Epic getEpicById(int id) {
+            loads++;
+            return super.getEpicById(id);
+        }
+
+        @Override
+        public Subtask getSubtaskById(int id) {
+            loads++;
+            return super.getSubtaskById(id);
+        }
+    }
+}
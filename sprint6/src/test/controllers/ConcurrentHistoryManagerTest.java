@@ -0,0 +1,71 @@
+package test.controllers;
+
+import controllers.*;
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentHistoryManagerTest {
+    private HistoryManager historyManager;
+
+    @BeforeEach
+    public void setUp() {
+        historyManager = Managers.getDefaultConcurrentHistory();
+    }
+
+    @Test
+    @DisplayName("Переместить повторно просмотренную задачу в конец истории")
+    public void addingSameTaskMovesItToEnd() {
+        Task task1 = new Task("Задача 1", "Описание 1", 1, Status.NEW);
+        Task task2 = new Task("Задача 2", "Описание 2", 2, Status.NEW);
+        Task task3 = new Task("Задача 3", "Описание 3", 3, Status.NEW);
+
+        historyManager.add(task1);
+        historyManager.add(task2);
+        historyManager.add(task3);
+        historyManager.add(task1);
+        historyManager.remove(task2.getId());
+
+        assertEquals(List.of(task3, task1), historyManager.getHistory());
+    }
+
+    @Test
+    @DisplayName("Не дублировать задачи при параллельной записи истории")
+    public void concurrentAddShouldNotDuplicateTasks() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    int id = j % 100;
+                    historyManager.add(new Task("Задача", "Описание", id, Status.NEW));
+                    if (j % 7 == 0) {
+                        historyManager.remove(id);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        List<Task> history = historyManager.getHistory();
+        Set<Integer> ids = new HashSet<>();
+        for (Task task : history) {
+            assertTrue(ids.add(task.getId()), "Задача не должна повторяться в истории");
+        }
+        assertTrue(history.size() <= 100);
+    }
+}
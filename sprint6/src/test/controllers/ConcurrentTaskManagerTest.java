@@ -0,0 +1,174 @@
+package test.controllers;
+
+import controllers.*;
+import exceptions.CollisionTaskException;
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest {
+    private static final int THREADS = 8;
+
+    private TaskManager taskManager;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void beforeEach() {
+        taskManager = Managers.getDefaultConcurrent();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @Test
+    @DisplayName("Выдавать уникальные id при параллельном добавлении")
+    public void concurrentAddShouldAssignUniqueIds() throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    taskManager.addTask(new Task("Задача", "Описание"));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Set<Integer> ids = new HashSet<>();
+        for (Task task : taskManager.getListOfTasks()) {
+            ids.add(task.getId());
+        }
+        assertEquals(THREADS * 1000, ids.size());
+        assertEquals(THREADS * 1000, taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    @DisplayName("Пропускать только одну из пересекающихся задач")
+    public void concurrentCollidingTasksShouldAddOnlyOne() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        AtomicInteger collisions = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            int offset = i;
+            futures.add(executor.submit(() -> {
+                try {
+                    taskManager.addTask(new Task("Задача", "Описание", start.plusMinutes(offset), 60));
+                } catch (CollisionTaskException e) {
+                    collisions.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(1, taskManager.getListOfTasks().size());
+        assertEquals(THREADS - 1, collisions.get());
+    }
+
+    @Test
+    @DisplayName("Пересчитывать статусы эпиков при параллельной работе с подзадачами")
+    public void concurrentSubtasksShouldKeepEpicStatus() throws Exception {
+        List<Epic> epicList = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Epic epic = new Epic("Эпик " + i, "Описание");
+            taskManager.addEpic(epic);
+            epicList.add(epic);
+        }
+        List<Future<?>> futures = new ArrayList<>();
+        for (Epic epic : epicList) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 500; j++) {
+                    taskManager.addSubtask(new Subtask("Подзадача", "Описание", 0, Status.DONE, epic.getId()));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        for (Epic epic : epicList) {
+            assertEquals(500, taskManager.getListOfSubtasksByOneEpic(epic.getId()).size());
+            assertEquals(Status.DONE, taskManager.getEpicById(epic.getId()).getStatus());
+        }
+        taskManager.removeAllSubtasks();
+        assertTrue(taskManager.getListOfSubtasks().isEmpty());
+        assertEquals(Status.NEW, taskManager.getEpicById(epicList.getFirst().getId()).getStatus());
+    }
+
+    @Test
+    @DisplayName("Добавлять пакеты подзадач параллельно с одиночными операциями")
+    public void concurrentBatchesShouldKeepEpicStatus() throws Exception {
+        Epic first = new Epic("Эпик 1", "Описание");
+        Epic second = new Epic("Эпик 2", "Описание");
+        taskManager.addEpic(first);
+        taskManager.addEpic(second);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 50; j++) {
+                    taskManager.addAll(List.of(new Subtask("Подзадача", "Описание", 0, Status.DONE, first.getId()),
+                            new Subtask("Подзадача", "Описание", 0, Status.NEW, second.getId())));
+                    taskManager.addSubtask(new Subtask("Подзадача", "Описание", 0, Status.DONE, second.getId()));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(THREADS * 50, taskManager.getListOfSubtasksByOneEpic(first.getId()).size());
+        assertEquals(THREADS * 100, taskManager.getListOfSubtasksByOneEpic(second.getId()).size());
+        assertEquals(Status.DONE, taskManager.getEpicById(first.getId()).getStatus());
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpicById(second.getId()).getStatus());
+    }
+
+    @Test
+    @DisplayName("Откатывать транзакцию, не затирая записи других потоков, которые ждут её конца")
+    public void transactionShouldSerializeWritersAndRollBackOnlyItsOwnChanges() throws Exception {
+        Epic epic = new Epic("Эпик", "Описание");
+        taskManager.addEpic(epic);
+        taskManager.beginTransaction();
+        taskManager.addTask(new Task("В транзакции", "Описание"));
+        taskManager.addSubtask(new Subtask("В транзакции", "Описание", 0, Status.DONE, epic.getId()));
+
+        Future<?> task = executor.submit(() -> taskManager.addTask(new Task("Снаружи", "Описание")));
+        Future<?> subtask = executor.submit(() -> taskManager.addSubtask(
+                new Subtask("Снаружи", "Описание", 0, Status.NEW, epic.getId())));
+        assertThrows(TimeoutException.class, () -> task.get(200, TimeUnit.MILLISECONDS));
+        assertThrows(TimeoutException.class, () -> subtask.get(200, TimeUnit.MILLISECONDS));
+        ExecutionException foreignCommit = assertThrows(ExecutionException.class,
+                () -> executor.submit(taskManager::commit).get());
+        assertInstanceOf(IllegalStateException.class, foreignCommit.getCause());
+
+        taskManager.rollback();
+        task.get();
+        subtask.get();
+        executor.shutdown();
+
+        assertEquals(List.of("Снаружи"), taskManager.getListOfTasks().stream().map(Task::getName).toList());
+        assertEquals(List.of("Снаружи"), taskManager.getListOfSubtasks().stream().map(Task::getName).toList());
+        assertEquals(Status.NEW, taskManager.getEpicById(epic.getId()).getStatus());
+        taskManager.inTransaction(() -> taskManager.addTask(new Task("Зафиксирована", "Описание")));
+        assertEquals(2, taskManager.getListOfTasks().size());
+    }
+}
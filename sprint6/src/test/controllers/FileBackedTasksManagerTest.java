@@ -1,15 +1,23 @@
 package test.controllers;
 
+import controllers.CsvTaskReader;
 import controllers.FileBackedTasksManager;
+import controllers.FlushPolicy;
+import controllers.HistoryPersistence;
+import controllers.PersistenceMode;
+import controllers.SnapshotFormat;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.time.LocalDateTime;
 import java.util.List;
 import model.*;
 import exceptions.ManagerSaveException;
@@ -86,4 +94,355 @@ public class FileBackedTasksManagerTest {
             FileBackedTasksManager.loadFromFile(nonExistentFile);
         });
     }
+
+    @Test
+    @DisplayName("Дописывать операции в журнал без перезаписи файла")
+    public void testJournalModeAppendsRecords() throws IOException {
+        FileBackedTasksManager journalManager = new FileBackedTasksManager(tempFile, PersistenceMode.JOURNAL);
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        journalFile.deleteOnExit();
+
+        Task task = new Task("Task1", "Description1");
+        journalManager.addTask(task);
+        journalManager.getTaskById(task.getId());
+
+        assertEquals(0, tempFile.length());
+        List<String> records = Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(2, records.size());
+        assertTrue(records.get(0).startsWith("PUT,"));
+        assertEquals("VIEW," + task.getId(), records.get(1));
+    }
+
+    @Test
+    @DisplayName("Восстановить состояние из снимка и журнала")
+    public void testLoadReplaysJournal() {
+        FileBackedTasksManager journalManager = new FileBackedTasksManager(tempFile, PersistenceMode.JOURNAL);
+        new File(tempFile.getPath() + ".journal").deleteOnExit();
+        journalManager.save();
+
+        Task task = new Task("Task1", "Description1");
+        journalManager.addTask(task);
+        Epic epic = new Epic("Epic1", "Description2");
+        journalManager.addEpic(epic);
+        Subtask subtask = new Subtask("Subtask1", "Description3", 0, Status.DONE, epic.getId(),
+                LocalDateTime.of(2024, 1, 1, 0, 0), 60);
+        journalManager.addSubtask(subtask);
+        journalManager.removeTaskById(task.getId());
+        journalManager.getSubtaskById(subtask.getId());
+
+        FileBackedTasksManager loadedManager = FileBackedTasksManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+
+        assertTrue(loadedManager.getListOfTasks().isEmpty());
+        assertEquals(1, loadedManager.getListOfSubtasks().size());
+        assertEquals(Status.DONE, loadedManager.getListOfEpics().getFirst().getStatus());
+        assertEquals(subtask.getStartTime(), loadedManager.getListOfEpics().getFirst().getStartTime());
+        assertEquals(List.of(subtask), loadedManager.getHistory());
+        assertEquals(List.of(subtask), loadedManager.getPrioritizedTasks());
+        assertTrue(loadedManager.getListOfTasksByType(TaskType.TASK).isEmpty());
+        assertEquals(2, loadedManager.getListOfTasksByStatus(Status.DONE).size());
+    }
+
+    @Test
+    @DisplayName("Сжать журнал в снимок после порога операций")
+    public void testJournalCompaction() throws IOException {
+        FileBackedTasksManager journalManager = new FileBackedTasksManager(tempFile, PersistenceMode.JOURNAL, 3);
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        journalFile.deleteOnExit();
+
+        journalManager.addTask(new Task("Task1", "Description1"));
+        journalManager.addTask(new Task("Task2", "Description2"));
+        assertTrue(journalFile.exists());
+        journalManager.addTask(new Task("Task3", "Description3"));
+
+        assertFalse(journalFile.exists());
+        List<String> lines = Files.readAllLines(tempFile.toPath(), StandardCharsets.UTF_8);
+        assertTrue(lines.get(3).contains("Task3"));
+        assertEquals(3, FileBackedTasksManager.loadFromFile(tempFile).getListOfTasks().size());
+    }
+
+    @Test
+    @DisplayName("Сохранять пакет операций одной записью в журнал")
+    public void testBatchPersistsOnce() throws IOException {
+        FileBackedTasksManager journalManager = new FileBackedTasksManager(tempFile, PersistenceMode.JOURNAL,
+                FlushPolicy.everyOperations(1000));
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        journalFile.deleteOnExit();
+        Epic epic = new Epic("Epic1", "Description");
+        journalManager.addEpic(epic);
+        List<Task> batch = List.of(new Task("Task1", "Description"),
+                new Subtask("Subtask1", "Description", 0, Status.DONE, epic.getId(),
+                        LocalDateTime.of(2024, 1, 1, 0, 0), 60));
+
+        journalManager.addAll(batch);
+        journalManager.removeAll(List.of(batch.getFirst().getId()));
+        assertFalse(journalFile.exists());
+        journalManager.flush();
+        assertEquals(4, Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8).size());
+
+        FileBackedTasksManager loadedManager = FileBackedTasksManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+        assertTrue(loadedManager.getListOfTasks().isEmpty());
+        assertEquals(Status.DONE, loadedManager.getEpicById(epic.getId()).getStatus());
+    }
+
+    @Test
+    @DisplayName("Сохранять изменения транзакции только при фиксации")
+    public void testTransactionSavesOnCommit() {
+        fileBackedTasksManager.addTask(new Task("Task1", "Description1"));
+        long savedLength = tempFile.length();
+
+        fileBackedTasksManager.beginTransaction();
+        fileBackedTasksManager.addTask(new Task("Task2", "Description2"));
+        fileBackedTasksManager.addTask(new Task("Task3", "Description3"));
+        assertEquals(savedLength, tempFile.length());
+        fileBackedTasksManager.rollback();
+        assertEquals(savedLength, tempFile.length());
+
+        fileBackedTasksManager.inTransaction(() -> {
+            fileBackedTasksManager.addTask(new Task("Task2", "Description2"));
+            fileBackedTasksManager.addTask(new Task("Task3", "Description3"));
+        });
+        assertEquals(3, FileBackedTasksManager.loadFromFile(tempFile).getListOfTasks().size());
+    }
+
+    @Test
+    @DisplayName("Не писать на диск при просмотре задач до сброса истории")
+    public void testHistoryPersistedOnFlush() throws IOException {
+        FileBackedTasksManager lazyManager = new FileBackedTasksManager(tempFile, SnapshotFormat.CSV,
+                PersistenceMode.SNAPSHOT, 1000, FlushPolicy.immediate(), HistoryPersistence.ON_FLUSH);
+        File historyFile = new File(tempFile.getPath() + ".history");
+        historyFile.deleteOnExit();
+        Task first = new Task("Task1", "Description1");
+        Task second = new Task("Task2", "Description2");
+        lazyManager.addTask(first);
+        lazyManager.addTask(second);
+        List<String> saved = Files.readAllLines(tempFile.toPath(), StandardCharsets.UTF_8);
+
+        lazyManager.getTaskById(second.getId());
+        lazyManager.getTaskById(first.getId());
+        assertEquals(saved, Files.readAllLines(tempFile.toPath(), StandardCharsets.UTF_8));
+        assertFalse(historyFile.exists());
+
+        lazyManager.close();
+        assertTrue(historyFile.exists());
+        assertEquals(List.of(second, first), FileBackedTasksManager.loadFromFile(tempFile).getHistory());
+
+        lazyManager.addTask(new Task("Task3", "Description3"));
+        assertFalse(historyFile.exists());
+        assertEquals(List.of(second, first), FileBackedTasksManager.loadFromFile(tempFile).getHistory());
+    }
+
+    @Test
+    @DisplayName("Выгрузить задачи в поток и прочитать их обратно по одной")
+    public void testStreamingExportAndImport() throws IOException {
+        Task task = new Task("Task1", "Description1", 0, Status.IN_PROGRESS, LocalDateTime.of(2024, 3, 9, 7, 5), 15);
+        fileBackedTasksManager.addTask(task);
+        Epic epic = new Epic("Epic1", "Description2");
+        fileBackedTasksManager.addEpic(epic);
+        Subtask subtask = new Subtask("Subtask1", "Description3", 0, Status.DONE, epic.getId());
+        fileBackedTasksManager.addSubtask(subtask);
+        fileBackedTasksManager.getSubtaskById(subtask.getId());
+
+        StringWriter out = new StringWriter();
+        fileBackedTasksManager.export(out);
+        assertEquals(Files.readString(tempFile.toPath(), StandardCharsets.UTF_8), out.toString());
+        assertTrue(out.toString().contains("1,TASK,Task1,IN_PROGRESS,Description1,09.03.24 07:05,09.03.24 07:20,15"));
+
+        try (CsvTaskReader reader = new CsvTaskReader(
+                new ByteArrayInputStream(out.toString().getBytes(StandardCharsets.UTF_8)))) {
+            assertTrue(reader.hasNext());
+            Task first = reader.next();
+            assertEquals(task.getStartTime(), first.getStartTime());
+            assertEquals(Status.IN_PROGRESS, first.getStatus());
+            assertEquals(TaskType.EPIC, reader.next().getTaskType());
+            assertEquals(epic.getId(), ((Subtask) reader.next()).getEpicId());
+            assertFalse(reader.hasNext());
+            assertEquals(List.of(subtask.getId()), reader.readHistory());
+        }
+    }
+
+    @Test
+    @DisplayName("Читать даты CSV по цифрам, другой формат даты - как ISO-8601")
+    public void testCsvDates() {
+        Task task = CsvTaskReader.parse("1,TASK,Task1,NEW,Description1,29.02.24 23:59,01.03.24 00:14,15");
+        assertEquals(LocalDateTime.of(2024, 2, 29, 23, 59), task.getStartTime());
+        assertEquals(EpochMinutes.of(LocalDateTime.of(2024, 3, 1, 0, 14)), task.getEndMinute());
+
+        Epic epic = (Epic) CsvTaskReader.parse("2,EPIC,Epic1,NEW,Description2,2024-01-01T10:00,2024-01-02T11:30,90");
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2024, 1, 2, 11, 30), epic.getEndTime());
+
+        Subtask subtask = (Subtask) CsvTaskReader.parse("3,SUBTASK,Subtask1,DONE,Description3,null,null,0,2");
+        assertEquals(EpochMinutes.NONE, subtask.getStartMinute());
+        assertNull(subtask.getStartTime());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvTaskReader.parse("1,TASK,Task1,NEW,Description1,29.02.23 10:00,29.02.23 10:15,15"));
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvTaskReader.parse("1,TASK,Task1,NEW,Description1,31.04.24 10:00,31.04.24 10:15,15"));
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvTaskReader.parse("1,TASK,Task1,NEW,Description1,01.01.24 24:00,01.01.24 10:15,15"));
+        assertThrows(IllegalArgumentException.class,
+                () -> CsvTaskReader.parse("1,TASK,Task1,NEW,Description1,вчера,01.01.24 10:15,15"));
+    }
+
+    @Test
+    @DisplayName("Сохранить название и описание с запятыми, кавычками и переводом строки")
+    public void testQuotedFieldsRoundTrip() throws IOException {
+        String name = "Купить \"молоко\", хлеб";
+        String description = "Первая строка,\nвторая строка";
+        Task task = new Task(name, description, 0, Status.NEW, LocalDateTime.of(2024, 5, 1, 10, 0), 30);
+        fileBackedTasksManager.addTask(task);
+
+        assertTrue(Files.readString(tempFile.toPath(), StandardCharsets.UTF_8)
+                .contains("\"Купить \"\"молоко\"\", хлеб\""));
+        Task loaded = FileBackedTasksManager.loadFromFile(tempFile).getListOfTasks().getFirst();
+        assertEquals(name, loaded.getName());
+        assertEquals(description, loaded.getDescription());
+        assertEquals(task.getStartTime(), loaded.getStartTime());
+        assertEquals(description,
+                FileBackedTasksManager.loadFromMappedFile(tempFile).getListOfTasks().getFirst().getDescription());
+
+        FileBackedTasksManager journalManager = new FileBackedTasksManager(tempFile, PersistenceMode.JOURNAL);
+        new File(tempFile.getPath() + ".journal").deleteOnExit();
+        journalManager.save();
+        Task other = new Task("Задача, вторая", "\"В кавычках\"\r\n");
+        journalManager.addTask(other);
+
+        FileBackedTasksManager replayed = FileBackedTasksManager.loadFromFile(tempFile, PersistenceMode.JOURNAL);
+        Task restored = replayed.getTaskById(other.getId());
+        assertEquals(other.getName(), restored.getName());
+        assertEquals(other.getDescription(), restored.getDescription());
+    }
+
+    @Test
+    @DisplayName("Сбрасывать изменения на диск каждые N операций")
+    public void testFlushEveryOperations() {
+        FileBackedTasksManager bufferedManager = new FileBackedTasksManager(tempFile, PersistenceMode.SNAPSHOT,
+                FlushPolicy.everyOperations(3));
+
+        bufferedManager.addTask(new Task("Task1", "Description1"));
+        bufferedManager.addTask(new Task("Task2", "Description2"));
+        assertEquals(0, tempFile.length());
+
+        bufferedManager.addTask(new Task("Task3", "Description3"));
+        assertEquals(3, FileBackedTasksManager.loadFromFile(tempFile).getListOfTasks().size());
+    }
+
+    @Test
+    @DisplayName("Сбрасывать изменения только при flush и close")
+    public void testManualFlush() {
+        FileBackedTasksManager journalManager = new FileBackedTasksManager(tempFile, PersistenceMode.JOURNAL,
+                FlushPolicy.manual());
+        File journalFile = new File(tempFile.getPath() + ".journal");
+        journalFile.deleteOnExit();
+
+        journalManager.addTask(new Task("Task1", "Description1"));
+        assertFalse(journalFile.exists());
+
+        journalManager.flush();
+        assertTrue(journalFile.exists());
+
+        journalManager.addTask(new Task("Task2", "Description2"));
+        journalManager.close();
+        assertEquals(2, FileBackedTasksManager.loadFromFile(tempFile).getListOfTasks().size());
+    }
+
+    @Test
+    @DisplayName("Сбрасывать изменения в фоне по таймеру")
+    public void testFlushEveryMillis() throws InterruptedException {
+        FileBackedTasksManager timedManager = new FileBackedTasksManager(tempFile, PersistenceMode.SNAPSHOT,
+                FlushPolicy.everyMillis(10));
+        for (int i = 0; i < 100; i++) {
+            timedManager.addTask(new Task("Task" + i, "Description"));
+        }
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (tempFile.length() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        timedManager.close();
+        assertEquals(100, FileBackedTasksManager.loadFromFile(tempFile).getListOfTasks().size());
+    }
+
+    @Test
+    @DisplayName("Сохранить и загрузить бинарный снимок")
+    public void testBinarySnapshotRoundTrip() throws IOException {
+        File binaryFile = File.createTempFile("test_file", ".bin");
+        binaryFile.deleteOnExit();
+        FileBackedTasksManager binaryManager = new FileBackedTasksManager(binaryFile, SnapshotFormat.BINARY);
+
+        Task task = new Task("Задача, с запятой", null, LocalDateTime.of(1960, 5, 1, 10, 30), 45);
+        binaryManager.addTask(task);
+        Epic epic = new Epic("Эпик", "Описание");
+        binaryManager.addEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", 0, Status.IN_PROGRESS, epic.getId(),
+                LocalDateTime.of(2024, 1, 1, 12, 0), 90);
+        binaryManager.addSubtask(subtask);
+        binaryManager.getSubtaskById(subtask.getId());
+        binaryManager.getTaskById(task.getId());
+
+        FileBackedTasksManager loadedManager = FileBackedTasksManager.loadFromFile(binaryFile);
+
+        Task loadedTask = loadedManager.getListOfTasks().getFirst();
+        assertEquals("Задача, с запятой", loadedTask.getName());
+        assertNull(loadedTask.getDescription());
+        assertEquals(task.getStartTime(), loadedTask.getStartTime());
+        assertEquals(45, loadedTask.getDuration());
+        Epic loadedEpic = loadedManager.getListOfEpics().getFirst();
+        assertEquals(Status.IN_PROGRESS, loadedEpic.getStatus());
+        assertEquals(subtask.getEndTime(), loadedEpic.getEndTime());
+        assertEquals(List.of(subtask, task), loadedManager.getHistory());
+        assertEquals(List.of(task, subtask), loadedManager.getPrioritizedTasks());
+    }
+
+    @Test
+    @DisplayName("Экспортировать бинарный снимок в CSV")
+    public void testExportBinaryToCsv() throws IOException {
+        File binaryFile = File.createTempFile("test_file", ".bin");
+        binaryFile.deleteOnExit();
+        FileBackedTasksManager binaryManager = new FileBackedTasksManager(binaryFile, SnapshotFormat.BINARY);
+        binaryManager.addTask(new Task("Task1", "Description1"));
+
+        binaryManager.export(tempFile, SnapshotFormat.CSV);
+
+        List<String> lines = Files.readAllLines(tempFile.toPath(), StandardCharsets.UTF_8);
+        assertTrue(lines.get(1).contains("Task1"));
+        assertEquals(1, FileBackedTasksManager.loadFromFile(tempFile).getListOfTasks().size());
+    }
+
+    @Test
+    @DisplayName("Загрузить CSV через отображение файла в память")
+    public void testLoadFromMappedCsvFile() throws IOException {
+        String content = "id,type,name,status,description,startTime,endTime,duration,epic\r\n" +
+                "1,TASK,Задача,NEW,description1,null,null,1000\r\n" +
+                "2,EPIC,Эпик,NEW,description2,01.01.24 00:00,01.01.24 16:40,1000\r\n" +
+                "3,SUBTASK,Подзадача,DONE,description3,01.01.24 00:00,01.01.24 16:40,1000,2\r\n" +
+                "\r\n" +
+                "3,1";
+        Files.writeString(tempFile.toPath(), content);
+
+        FileBackedTasksManager loadedManager = FileBackedTasksManager.loadFromMappedFile(tempFile);
+
+        assertEquals("Задача", loadedManager.getListOfTasks().getFirst().getName());
+        assertEquals(Status.DONE, loadedManager.getListOfEpics().getFirst().getStatus());
+        assertEquals(2, loadedManager.getHistory().size());
+        assertEquals(3, loadedManager.getHistory().getFirst().getId());
+    }
+
+    @Test
+    @DisplayName("Загрузить бинарный снимок через отображение файла в память")
+    public void testLoadFromMappedBinaryFile() throws IOException {
+        File binaryFile = File.createTempFile("test_file", ".bin");
+        binaryFile.deleteOnExit();
+        FileBackedTasksManager binaryManager = new FileBackedTasksManager(binaryFile, SnapshotFormat.BINARY);
+        for (int i = 0; i < 100; i++) {
+            binaryManager.addTask(new Task("Задача " + i, "Описание"));
+        }
+        binaryManager.getTaskById(50);
+
+        FileBackedTasksManager loadedManager = FileBackedTasksManager.loadFromMappedFile(binaryFile);
+
+        assertEquals(100, loadedManager.getListOfTasks().size());
+        assertEquals(List.of(binaryManager.getTaskById(50)), loadedManager.getHistory());
+    }
 }
@@ -219,4 +219,39 @@ class InMemoryHistoryManagerTest {
         assertFalse(historyManager.getHistory().contains(task2));
         assertTrue(historyManager.getHistory().contains(task1));
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Вернуть задачу в историю после удаления")
+    public void addTaskAfterRemoveShouldKeepHistoryConsistent() {
+        Task task1 = new Task("Задача 1", "Задача 1", 1, Status.NEW);
+        Task task2 = new Task("Задача 2", "Задача 2", 2, Status.NEW);
+        historyManager.add(task1);
+        historyManager.add(task2);
+
+        historyManager.remove(task1.getId());
+        historyManager.add(task1);
+
+        assertEquals(List.of(task2, task1), historyManager.getHistory());
+        assertEquals(2, historyManager.getIndexSize());
+    }
+
+    @Test
+    @DisplayName("Вытеснять самую старую задачу из ограниченной истории")
+    public void boundedHistoryShouldEvictOldestTask() {
+        InMemoryHistoryManager boundedHistory = (InMemoryHistoryManager) Managers.getDefaultHistory(2);
+        Task task1 = new Task("Задача 1", "Задача 1", 1, Status.NEW);
+        Task task2 = new Task("Задача 2", "Задача 2", 2, Status.NEW);
+        Task task3 = new Task("Задача 3", "Задача 3", 3, Status.NEW);
+
+        boundedHistory.add(task1);
+        boundedHistory.add(task2);
+        boundedHistory.add(task1);
+        boundedHistory.add(task3);
+
+        assertEquals(List.of(task1, task3), boundedHistory.getHistory());
+        assertEquals(2, boundedHistory.getSize());
+        assertEquals(2, boundedHistory.getCapacity());
+        assertEquals(1, boundedHistory.getEvictionCount());
+        assertEquals(2, boundedHistory.getIndexSize());
+    }
+}
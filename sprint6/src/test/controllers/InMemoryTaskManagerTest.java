@@ -7,9 +7,12 @@ import org.junit.jupiter.api.Test;
 import model.*;
 import exceptions.CollisionTaskException;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.NavigableSet;
 import static org.junit.jupiter.api.Assertions.*;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -257,4 +260,308 @@ class InMemoryTaskManagerTest {
             taskManager.validate(newTask);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Проверить пересечение только с соседними по времени задачами")
+    public void testValidateChecksNeighbourTasks() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 100; i++) {
+            taskManager.addTask(new Task("Задача " + i, "Описание", start.plusMinutes(i * 60L), 30));
+        }
+
+        Task betweenTasks = new Task("Между задачами", "Описание", start.plusMinutes(30), 30);
+        taskManager.addTask(betweenTasks);
+        assertEquals(101, taskManager.getPrioritizedTasks().size());
+
+        Task overlapsLater = new Task("Пересекается", "Описание", start.plusMinutes(50 * 60 + 20), 20);
+        assertThrows(CollisionTaskException.class, () -> taskManager.addTask(overlapsLater));
+
+        Task coversSeveral = new Task("Пересекается", "Описание", start.minusMinutes(10), 500);
+        assertThrows(CollisionTaskException.class, () -> taskManager.addTask(coversSeveral));
+    }
+
+    @Test
+    @DisplayName("Обновить задачу без пересечения с самой собой")
+    public void testValidateSkipsTaskWithSameId() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Task task = new Task("Задача", "Описание", start, 60);
+        taskManager.addTask(task);
+        taskManager.addTask(new Task("Задача", "Описание", start.plusMinutes(60), 60));
+
+        taskManager.updateTask(new Task("Задача", "Новое описание", task.getId(), Status.IN_PROGRESS,
+                start.plusMinutes(10), 50));
+        assertEquals("Новое описание", taskManager.getPrioritizedTasks().getFirst().getDescription());
+
+        assertThrows(CollisionTaskException.class, () -> taskManager.updateTask(new Task("Задача",
+                "Описание", task.getId(), Status.NEW, start.plusMinutes(30), 60)));
+    }
+
+    @Test
+    @DisplayName("Вернуть живое неизменяемое представление приоритетных задач")
+    public void testPrioritizedTasksViewIsLiveAndUnmodifiable() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        NavigableSet<Task> view = taskManager.getPrioritizedTasksView();
+        assertTrue(view.isEmpty());
+
+        Task task = new Task("Задача", "Описание", start, 30);
+        taskManager.addTask(task);
+        assertEquals(1, view.size());
+        assertEquals(task, view.first());
+        assertThrows(UnsupportedOperationException.class, () -> view.remove(task));
+        assertThrows(UnsupportedOperationException.class, view::pollFirst);
+
+        taskManager.removeTaskById(task.getId());
+        assertTrue(view.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Вернуть задачи, начинающиеся в заданном окне")
+    public void testPrioritizedTasksViewByWindow() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            taskManager.addTask(new Task("Задача " + i, "Описание", start.plusHours(i), 30));
+        }
+        taskManager.addTask(new Task("Без времени", "Описание"));
+
+        NavigableSet<Task> window = taskManager.getPrioritizedTasksView(start.plusHours(2), start.plusHours(5));
+        assertEquals(3, window.size());
+        assertEquals(start.plusHours(2), window.first().getStartTime());
+        assertEquals(start.plusHours(4), window.last().getStartTime());
+
+        taskManager.addTask(new Task("Новая", "Описание", start.plusHours(3).plusMinutes(30), 20));
+        assertEquals(4, window.size());
+        assertThrows(UnsupportedOperationException.class, window::pollLast);
+    }
+
+    @Test
+    @DisplayName("Постранично обойти приоритетные задачи")
+    public void testPrioritizedTasksPages() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 7; i++) {
+            taskManager.addTask(new Task("Задача " + i, "Описание", start.plusHours(i), 30));
+        }
+
+        List<Task> first = taskManager.getPrioritizedTasksPage(null, 3);
+        assertEquals(3, first.size());
+        assertEquals(start, first.getFirst().getStartTime());
+        List<Task> second = taskManager.getPrioritizedTasksPage(first.getLast(), 3);
+        assertEquals(start.plusHours(3), second.getFirst().getStartTime());
+        List<Task> third = taskManager.getPrioritizedTasksPage(second.getLast(), 3);
+        assertEquals(1, third.size());
+        assertTrue(taskManager.getPrioritizedTasksPage(third.getLast(), 3).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getPrioritizedTasksPage(null, 0));
+    }
+
+    @Test
+    @DisplayName("Найти задачи, пересекающие интервал")
+    public void testTasksBetween() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < 10; i++) {
+            taskManager.addTask(new Task("Задача " + i, "Описание", start.plusHours(i), 30));
+        }
+        taskManager.addTask(new Task("Без времени", "Описание"));
+
+        List<Task> between = taskManager.getTasksBetween(start.plusHours(2).plusMinutes(15), start.plusHours(5));
+        assertEquals(3, between.size());
+        assertEquals(start.plusHours(2), between.getFirst().getStartTime());
+        assertEquals(start.plusHours(4), between.getLast().getStartTime());
+        assertEquals(3, taskManager.countTasksInRange(start.plusHours(2).plusMinutes(15), start.plusHours(5)));
+
+        assertEquals(0, taskManager.countTasksInRange(start.plusHours(2).plusMinutes(30), start.plusHours(3)));
+        assertEquals(10, taskManager.countTasksInRange(start.minusDays(1), start.plusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasksBetween(start, start.minusHours(1)));
+    }
+
+    @Test
+    @DisplayName("Найти ближайшее свободное время")
+    public void testNextFreeSlot() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        taskManager.addTask(new Task("Задача", "Описание", start, 60));
+        taskManager.addTask(new Task("Задача", "Описание", start.plusMinutes(80), 60));
+        taskManager.addTask(new Task("Задача", "Описание", start.plusMinutes(150), 30));
+
+        assertEquals(start.plusMinutes(60), taskManager.getNextFreeSlot(20, start.plusMinutes(10)));
+        assertEquals(start.plusMinutes(180), taskManager.getNextFreeSlot(30, start.plusMinutes(10)));
+        assertEquals(start.minusHours(1), taskManager.getNextFreeSlot(60, start.minusHours(1)));
+        assertEquals(start.plusMinutes(140), taskManager.getNextFreeSlot(10, start.plusMinutes(140)));
+
+        LocalDateTime slot = taskManager.getNextFreeSlot(25, start);
+        assertDoesNotThrow(() -> taskManager.addTask(new Task("Задача", "Описание", slot, 25)));
+    }
+
+    @Test
+    @DisplayName("Найти задачи по статусу и типу")
+    public void testTasksByStatusAndType() {
+        Task task = new Task("Задача", "Описание", 0, Status.IN_PROGRESS);
+        taskManager.addTask(task);
+        taskManager.addTask(new Task("Задача", "Описание"));
+        Epic epic = new Epic("Эпик", "Описание");
+        taskManager.addEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", 0, Status.DONE, epic.getId());
+        taskManager.addSubtask(subtask);
+
+        assertEquals(List.of(task), taskManager.getListOfTasksByStatus(Status.IN_PROGRESS));
+        assertEquals(2, taskManager.getListOfTasksByStatus(Status.DONE).size());
+        assertEquals(2, taskManager.getListOfTasksByType(TaskType.TASK).size());
+        assertEquals(List.of(subtask), taskManager.getListOfTasksByTypeAndStatus(TaskType.SUBTASK, Status.DONE));
+
+        taskManager.updateSubtask(new Subtask("Подзадача", "Описание", subtask.getId(), Status.NEW, epic.getId()));
+        assertEquals(List.of(epic), taskManager.getListOfTasksByTypeAndStatus(TaskType.EPIC, Status.NEW));
+        assertTrue(taskManager.getListOfTasksByStatus(Status.DONE).isEmpty());
+
+        taskManager.removeTaskById(task.getId());
+        assertTrue(taskManager.getListOfTasksByStatus(Status.IN_PROGRESS).isEmpty());
+        taskManager.removeAllEpics();
+        assertTrue(taskManager.getListOfTasksByType(TaskType.SUBTASK).isEmpty());
+        assertEquals(1, taskManager.getListOfTasksByStatus(Status.NEW).size());
+    }
+
+    @Test
+    @DisplayName("Отвечать на запрос по статусу за время по размеру ответа после удаления большинства задач")
+    public void testStatusQueryAfterDrainIsProportionalToResult() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            Task task = new Task("Задача", "Описание");
+            taskManager.addTask(task);
+            ids.add(task.getId());
+        }
+        for (int id : ids.subList(10, ids.size())) {
+            taskManager.removeTaskById(id);
+        }
+
+        assertTimeout(Duration.ofSeconds(1), () -> {
+            for (int i = 0; i < 10_000; i++) {
+                assertEquals(10, taskManager.getListOfTasksByTypeAndStatus(TaskType.TASK, Status.NEW).size());
+            }
+        });
+        assertEquals(ids.subList(0, 10), taskManager.getListOfTasksByStatus(Status.NEW).stream().map(Task::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Сохранить доступ к задачам после удаления части из них")
+    public void testLookupAfterManyRemovals() {
+        Epic epic = new Epic("Эпик", "Описание");
+        taskManager.addEpic(epic);
+        for (int i = 0; i < 1000; i++) {
+            taskManager.addTask(new Task("Задача " + i, "Описание"));
+            taskManager.addSubtask(new Subtask("Подзадача " + i, "Описание", epic.getId()));
+        }
+        for (Task task : taskManager.getListOfTasks()) {
+            if (task.getId() % 3 == 0) {
+                taskManager.removeTaskById(task.getId());
+            }
+        }
+        for (Subtask subtask : taskManager.getListOfSubtasks()) {
+            if (subtask.getId() % 4 == 1) {
+                taskManager.removeSubtaskById(subtask.getId());
+            }
+        }
+
+        for (int id = 2; id <= 2001; id++) {
+            boolean isTask = id % 2 == 0;
+            boolean removed = isTask ? id % 3 == 0 : id % 4 == 1;
+            Task found = isTask ? taskManager.getTaskById(id) : taskManager.getSubtaskById(id);
+            assertEquals(removed, found == null, "id " + id);
+        }
+        assertEquals(500, epic.getSubtaskIds().size());
+        assertFalse(epic.getSubtaskIds().contains(5));
+        assertTrue(epic.getSubtaskIds().contains(7));
+    }
+
+    @Test
+    @DisplayName("Добавить, обновить и удалить задачи пакетом")
+    public void testBatchOperations() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Epic epic = new Epic("Эпик", "Описание");
+        taskManager.addEpic(epic);
+        Task task = new Task("Задача", "Описание", start, 30);
+        Subtask first = new Subtask("Подзадача 1", "Описание", 0, Status.DONE, epic.getId(), start.plusHours(1), 30);
+        Subtask second = new Subtask("Подзадача 2", "Описание", 0, Status.NEW, epic.getId(), start.plusHours(2), 30);
+        taskManager.addAll(List.of(task, first, second));
+
+        assertEquals(3, taskManager.getPrioritizedTasks().size());
+        assertEquals(List.of(first, second), taskManager.getListOfSubtasksByOneEpic(epic.getId()));
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        assertEquals(start.plusHours(1), epic.getStartTime());
+
+        taskManager.updateAll(List.of(
+                new Task("Задача", "Описание", task.getId(), Status.DONE, start.plusHours(1), 30),
+                new Subtask("Подзадача 1", "Описание", first.getId(), Status.DONE, epic.getId(), start, 30)));
+        assertEquals(first.getId(), taskManager.getPrioritizedTasks().getFirst().getId());
+        assertEquals(Status.DONE, taskManager.getTaskById(task.getId()).getStatus());
+
+        taskManager.removeAll(List.of(task.getId(), second.getId(), 1000));
+        assertTrue(taskManager.getListOfTasks().isEmpty());
+        assertEquals(Status.DONE, epic.getStatus());
+        assertEquals(List.of(first.getId()), epic.getSubtaskIds());
+    }
+
+    @Test
+    @DisplayName("Не менять состояние при пересечении внутри пакета")
+    public void testBatchCollisionIsAtomic() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        taskManager.addTask(new Task("Задача", "Описание", start, 30));
+
+        assertThrows(CollisionTaskException.class, () -> taskManager.addAll(List.of(
+                new Task("Задача", "Описание", start.plusHours(1), 30),
+                new Task("Задача", "Описание", start.plusHours(1).plusMinutes(20), 30))));
+        assertThrows(CollisionTaskException.class, () -> taskManager.addAll(List.of(
+                new Task("Задача", "Описание", start.plusHours(2), 30),
+                new Task("Задача", "Описание", start.plusMinutes(10), 30))));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.addAll(List.of(
+                new Task("Задача", "Описание", start.plusHours(3), 30),
+                new Subtask("Подзадача", "Описание", 1000))));
+        assertEquals(1, taskManager.getListOfTasks().size());
+    }
+
+    @Test
+    @DisplayName("Откатить транзакцию к состоянию на момент начала")
+    public void testRollbackRestoresState() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Epic epic = new Epic("Эпик", "Описание");
+        taskManager.addEpic(epic);
+        Subtask subtask = new Subtask("Подзадача", "Описание", 0, Status.DONE, epic.getId(), start, 60);
+        taskManager.addSubtask(subtask);
+        Task task = new Task("Задача", "Описание");
+        taskManager.addTask(task);
+        taskManager.getTaskById(task.getId());
+
+        taskManager.beginTransaction();
+        taskManager.addSubtask(new Subtask("Подзадача", "Описание", 0, Status.NEW, epic.getId(),
+                start.plusHours(2), 60));
+        taskManager.removeTaskById(task.getId());
+        taskManager.getSubtaskById(subtask.getId());
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        taskManager.rollback();
+
+        assertEquals(List.of(task), taskManager.getListOfTasks());
+        assertEquals(List.of(subtask), taskManager.getListOfSubtasksByOneEpic(epic.getId()));
+        assertEquals(Status.DONE, epic.getStatus());
+        assertEquals(start.plusHours(1), epic.getEndTime());
+        assertEquals(List.of(task), taskManager.getHistory());
+        assertEquals(List.of(subtask, task), taskManager.getPrioritizedTasks());
+        assertEquals(List.of(epic, subtask), taskManager.getListOfTasksByStatus(Status.DONE));
+
+        Task next = new Task("Задача", "Описание");
+        taskManager.addTask(next);
+        assertEquals(task.getId() + 1, next.getId());
+    }
+
+    @Test
+    @DisplayName("Откатить все операции транзакции при пересечении")
+    public void testInTransactionRollsBackOnCollision() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        taskManager.addTask(new Task("Задача", "Описание", start, 30));
+
+        assertThrows(CollisionTaskException.class, () -> taskManager.inTransaction(() -> {
+            taskManager.addTask(new Task("Задача", "Описание", start.plusHours(1), 30));
+            taskManager.addTask(new Task("Задача", "Описание", start.plusMinutes(10), 30));
+        }));
+        assertEquals(1, taskManager.getListOfTasks().size());
+        assertEquals(1, taskManager.getPrioritizedTasks().size());
+
+        taskManager.inTransaction(() -> taskManager.addTask(new Task("Задача", "Описание", start.plusHours(1), 30)));
+        assertEquals(2, taskManager.getListOfTasks().size());
+        assertThrows(IllegalStateException.class, taskManager::commit);
+    }
+}
@@ -0,0 +1,117 @@
+package test.controllers;
+
+import controllers.*;
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournaledTaskStoreTest {
+    private File journalFile;
+    private JournaledTaskStore store;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        journalFile = File.createTempFile("tasks", ".journal");
+        journalFile.deleteOnExit();
+        store = new JournaledTaskStore(journalFile);
+    }
+
+    @AfterEach
+    public void afterEach() {
+        store.close();
+    }
+
+    @Test
+    @DisplayName("Восстановить задачи менеджера из журнала хранилища")
+    void managerStateSurvivesReopen() {
+        TaskManager taskManager = new InMemoryTaskManager(store);
+        Task task = new Task("Task1", "Description1", LocalDateTime.of(2024, 1, 1, 12, 0), 30);
+        taskManager.addTask(task);
+        Epic epic = new Epic("Epic1", "Description2");
+        taskManager.addEpic(epic);
+        Subtask first = new Subtask("Subtask1", "Description3", 0, Status.DONE, epic.getId(),
+                LocalDateTime.of(2024, 1, 1, 9, 0), 60);
+        Subtask second = new Subtask("Subtask2", "Description4", 0, Status.DONE, epic.getId(),
+                LocalDateTime.of(2024, 1, 1, 10, 0), 60);
+        taskManager.addAll(List.of(first, second));
+        taskManager.removeSubtaskById(first.getId());
+        store.close();
+
+        store = new JournaledTaskStore(journalFile);
+        TaskManager reopened = new InMemoryTaskManager(store);
+
+        assertEquals(List.of(second, task), reopened.getPrioritizedTasks());
+        Epic restoredEpic = reopened.getEpicById(epic.getId());
+        assertEquals(Status.DONE, restoredEpic.getStatus());
+        assertEquals(List.of(second.getId()), restoredEpic.getSubtaskIds());
+        assertEquals(second.getStartTime(), restoredEpic.getStartTime());
+        assertEquals(List.of(second), reopened.getListOfTasksByStatus(Status.DONE).stream()
+                .filter(t -> t.getTaskType() == TaskType.SUBTASK).toList());
+
+        Task next = new Task("Task2", "Description5");
+        reopened.addTask(next);
+        assertEquals(second.getId() + 1, next.getId());
+    }
+
+    @Test
+    @DisplayName("Сжимать журнал во время работы, если в нём в основном устаревшие записи")
+    void compactsJournalWhileRunning() throws IOException {
+        TaskManager taskManager = new InMemoryTaskManager(store);
+        Task task = new Task("Task1", "Description1");
+        taskManager.addTask(task);
+        for (int i = 0; i < 10; i++) {
+            taskManager.updateTask(new Task("Task1", "Description" + i, task.getId(), Status.IN_PROGRESS));
+            assertTrue(Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8).size() <= 2);
+        }
+        taskManager.addTask(new Task("Task2", "Description2"));
+        taskManager.removeAllTasks();
+        taskManager.addTask(new Task("Task3", "Description3"));
+        store.close();
+
+        List<String> records = Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8);
+        assertEquals(1, records.size());
+        assertTrue(records.getFirst().startsWith("PUT,3,TASK,Task3,"));
+        store = new JournaledTaskStore(journalFile);
+        assertEquals("Task3", store.get(TaskType.TASK, 3).getName());
+    }
+
+    @Test
+    @DisplayName("Сжать журнал при открытии, если в нём в основном устаревшие записи")
+    void compactsJournalOnOpen() throws IOException {
+        store.put(new Task("Task1", "Description1", 1, Status.NEW));
+        store.close();
+        String record = Files.readString(journalFile.toPath(), StandardCharsets.UTF_8);
+        Files.writeString(journalFile.toPath(), record.repeat(3), StandardCharsets.UTF_8);
+
+        store = new JournaledTaskStore(journalFile);
+
+        assertEquals(List.of(record.strip()), Files.readAllLines(journalFile.toPath(), StandardCharsets.UTF_8));
+        assertEquals("Task1", store.get(TaskType.TASK, 1).getName());
+    }
+
+    @Test
+    @DisplayName("Выбрать хранилище через Managers")
+    void managersSelectStorageEngine() {
+        assertInstanceOf(InMemoryTaskStore.class, Managers.getDefaultStore(StorageEngine.IN_MEMORY));
+        TaskManager taskManager = Managers.getDefault(StorageEngine.IN_MEMORY);
+        taskManager.addTask(new Task("Task1", "Description1"));
+        assertEquals(1, taskManager.getListOfTasks().size());
+
+        assertThrows(IllegalArgumentException.class, () -> Managers.getDefaultStore(StorageEngine.JOURNALED_FILE));
+        store.close();
+        TaskStore journaled = Managers.getDefaultStore(StorageEngine.JOURNALED_FILE, journalFile);
+        assertInstanceOf(JournaledTaskStore.class, journaled);
+        ((JournaledTaskStore) journaled).close();
+    }
+}
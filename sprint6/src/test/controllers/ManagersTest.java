@@ -19,4 +19,11 @@ class ManagersTest {
         HistoryManager historyManager = Managers.getDefaultHistory();
         assertTrue(historyManager instanceof InMemoryHistoryManager);
     }
+
+    @Test
+    @DisplayName("Должен инициализировать ConcurrentTaskManager")
+    void getDefaultConcurrentShouldInitializeConcurrentTaskManager() {
+        TaskManager taskManager = Managers.getDefaultConcurrent();
+        assertTrue(taskManager instanceof ConcurrentTaskManager);
+    }
 }
\ No newline at end of file
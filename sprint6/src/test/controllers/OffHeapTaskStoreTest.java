@@ -0,0 +1,170 @@
+package test.controllers;
+
+import controllers.*;
+import exceptions.CollisionTaskException;
+import model.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTaskStoreTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private OffHeapTaskStore store;
+    private TaskManager taskManager;
+
+    @BeforeEach
+    public void beforeEach() {
+        store = new OffHeapTaskStore();
+        taskManager = new InMemoryTaskManager(store);
+    }
+
+    @Test
+    @DisplayName("Работать с менеджером поверх хранилища вне кучи")
+    void managerWorksOverOffHeapStore() {
+        Task task = new Task("Задача", "Описание, с \"кавычками\"", START.plusHours(5), 30);
+        taskManager.addTask(task);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        taskManager.addEpic(epic);
+        Subtask first = new Subtask("Подзадача1", null, 0, Status.DONE, epic.getId(), START.plusHours(1), 60);
+        Subtask second = new Subtask("Подзадача2", "", 0, Status.NEW, epic.getId(), null, 0);
+        taskManager.addAll(List.of(first, second));
+
+        Task stored = taskManager.getTaskById(task.getId());
+        assertEquals(task.getName(), stored.getName());
+        assertEquals(task.getDescription(), stored.getDescription());
+        assertEquals(task.getStartTime(), stored.getStartTime());
+        assertEquals(30, stored.getDuration());
+        Subtask storedSubtask = taskManager.getSubtaskById(first.getId());
+        assertNull(storedSubtask.getDescription());
+        assertEquals(epic.getId(), storedSubtask.getEpicId());
+        assertEquals(Status.DONE, storedSubtask.getStatus());
+        assertEquals("", taskManager.getSubtaskById(second.getId()).getDescription());
+
+        assertEquals(List.of(first, task, second), taskManager.getPrioritizedTasks());
+        assertEquals(Status.IN_PROGRESS, taskManager.getEpicById(epic.getId()).getStatus());
+        assertThrows(CollisionTaskException.class,
+                () -> taskManager.addTask(new Task("Пересечение", "Описание", START.plusHours(5).plusMinutes(10), 10)));
+
+        taskManager.updateTask(new Task("Новое имя", "Новое описание", task.getId(), Status.DONE,
+                START.plusMinutes(10), 20));
+        assertEquals(List.of(task, first, second), taskManager.getPrioritizedTasks());
+        assertEquals("Новое имя", taskManager.getTaskById(task.getId()).getName());
+        assertEquals(List.of(task), taskManager.getTasksBetween(START, START.plusMinutes(40)));
+
+        taskManager.removeSubtaskById(first.getId());
+        assertEquals(List.of(task, second), taskManager.getPrioritizedTasks());
+        taskManager.removeAllTasks();
+        assertEquals(List.of(second), taskManager.getPrioritizedTasks());
+        taskManager.removeAllEpics();
+        assertTrue(taskManager.getPrioritizedTasks().isEmpty());
+        assertEquals(0, store.size(TaskType.SUBTASK));
+    }
+
+    @Test
+    @DisplayName("Держать порядок по времени начала как в хранилище в куче")
+    void startTimeOrderMatchesInMemoryStore() {
+        TaskStore reference = new InMemoryTaskStore();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            int id = 1 + random.nextInt(5_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(reference.remove(TaskType.TASK, id), store.remove(TaskType.TASK, id));
+                continue;
+            }
+            LocalDateTime startTime = random.nextInt(10) == 0 ? null : START.plusMinutes(random.nextInt(1_000));
+            Task task = new Task("Задача" + i, "Описание" + i, id, Status.NEW, startTime, 15);
+            assertEquals(reference.put(task), store.put(task));
+        }
+        assertEquals(reference.size(TaskType.TASK), store.size(TaskType.TASK));
+        assertEquals(new ArrayList<>(reference.byStartTime()), new ArrayList<>(store.byStartTime()));
+        for (Task task : reference.scan(TaskType.TASK)) {
+            assertEquals(task.getName(), store.get(TaskType.TASK, task.getId()).getName());
+        }
+
+        Task from = new Task("Граница", "", Integer.MIN_VALUE, Status.NEW, START.plusMinutes(200), 0);
+        Task to = new Task("Граница", "", Integer.MIN_VALUE, Status.NEW, START.plusMinutes(300), 0);
+        NavigableSet<Task> expected = reference.byStartTime().subSet(from, true, to, false);
+        NavigableSet<Task> actual = store.byStartTime().subSet(from, true, to, false);
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        assertEquals(expected.first(), actual.first());
+        assertEquals(expected.last(), actual.last());
+        assertEquals(reference.byStartTime().lower(from), store.byStartTime().lower(from));
+        assertEquals(reference.byStartTime().higher(to), store.byStartTime().higher(to));
+        assertEquals(expected.descendingIterator().next(), actual.descendingIterator().next());
+        assertTrue(actual.contains(expected.first()));
+        assertFalse(actual.contains(reference.byStartTime().last()));
+    }
+
+    @Test
+    @DisplayName("Обходить порядок назад через descendingSet и курсор расписания как хранилище в куче")
+    void descendingOrderAndScheduleCursorMatchInMemoryStore() {
+        TaskStore reference = new InMemoryTaskStore();
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            int id = 1 + random.nextInt(2_000);
+            LocalDateTime startTime = random.nextInt(10) == 0 ? null : START.plusMinutes(random.nextInt(500));
+            Task task = random.nextBoolean()
+                    ? new Task("Задача" + i, "Описание", id, Status.NEW, startTime, 1 + random.nextInt(30))
+                    : new Subtask("Подзадача" + i, "Описание", id + 2_000, Status.NEW, 1, startTime, 5);
+            reference.put(task);
+            store.put(task);
+        }
+        reference.clear(TaskType.SUBTASK);
+        store.clear(TaskType.SUBTASK);
+        assertEquals(new ArrayList<>(reference.byStartTime()), new ArrayList<>(store.byStartTime()));
+
+        NavigableSet<Task> expected = reference.byStartTime().descendingSet();
+        NavigableSet<Task> actual = store.byStartTime().descendingSet();
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(actual));
+        assertEquals(new ArrayList<>(reference.byStartTime()), new ArrayList<>(actual.descendingSet()));
+        Task from = new Task("Граница", "", Integer.MIN_VALUE, Status.NEW, START.plusMinutes(300), 0);
+        Task to = new Task("Граница", "", Integer.MIN_VALUE, Status.NEW, START.plusMinutes(200), 0);
+        assertEquals(new ArrayList<>(expected.subSet(from, true, to, false)),
+                new ArrayList<>(actual.subSet(from, true, to, false)));
+        assertEquals(new ArrayList<>(expected.headSet(to, true)), new ArrayList<>(actual.headSet(to, true)));
+        assertEquals(expected.first(), actual.first());
+        assertEquals(expected.lower(from), actual.lower(from));
+        assertEquals(expected.ceiling(to), actual.ceiling(to));
+        assertThrows(UnsupportedOperationException.class, () -> actual.pollFirst());
+        assertThrows(UnsupportedOperationException.class, () -> reference.byStartTime().pollFirst());
+
+        for (int minute = 0; minute <= 520; minute += 13) {
+            long startMinute = EpochMinutes.of(START.plusMinutes(minute));
+            ScheduleCursor expectedCursor = reference.scheduleBefore(startMinute);
+            ScheduleCursor actualCursor = store.scheduleBefore(startMinute);
+            while (expectedCursor.previous()) {
+                assertTrue(actualCursor.previous());
+                assertEquals(expectedCursor.id(), actualCursor.id());
+                assertEquals(expectedCursor.startMinute(), actualCursor.startMinute());
+                assertEquals(expectedCursor.endMinute(), actualCursor.endMinute());
+            }
+            assertFalse(actualCursor.previous());
+        }
+    }
+
+    @Test
+    @DisplayName("Сжать арену строк после многих обновлений")
+    void compactsStringArena() {
+        String description = "x".repeat(10_000);
+        Task task = new Task("Задача", description, START, 15);
+        taskManager.addTask(task);
+        for (int i = 0; i < 500; i++) {
+            taskManager.updateTask(new Task("Задача" + i, description, task.getId(), Status.IN_PROGRESS, START, 15));
+        }
+
+        assertTrue(store.getStringBytes() < 2 * (1 << 20));
+        Task stored = taskManager.getTaskById(task.getId());
+        assertEquals("Задача499", stored.getName());
+        assertEquals(description, stored.getDescription());
+        assertInstanceOf(OffHeapTaskStore.class, Managers.getDefaultStore(StorageEngine.OFF_HEAP));
+    }
+}
@@ -0,0 +1,163 @@
+package test.http;
+
+import controllers.Managers;
+import controllers.TaskManager;
+import http.HttpTaskServer;
+import http.TaskJson;
+import model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpTaskServerTest {
+    private TaskManager taskManager;
+    private HttpTaskServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    public void beforeEach() throws IOException {
+        taskManager = Managers.getDefaultConcurrent();
+        server = new HttpTaskServer(taskManager, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        server.stop();
+    }
+
+    @Test
+    @DisplayName("Создать, получить, обновить и удалить задачу через HTTP")
+    public void taskLifecycle() throws Exception {
+        HttpResponse<String> created = send("POST", "/tasks",
+                "{\"name\":\"Задача \\\"1\\\"\",\"description\":\"Описание\",\"startTime\":\"2024-01-01T10:00\","
+                        + "\"duration\":30}");
+        assertEquals(201, created.statusCode());
+        Task task = taskManager.getListOfTasks().getFirst();
+        assertEquals("Задача \"1\"", task.getName());
+        assertEquals(TaskJson.toJson(task), created.body());
+
+        HttpResponse<String> fetched = send("GET", "/tasks/" + task.getId(), null);
+        assertEquals(200, fetched.statusCode());
+        assertTrue(fetched.body().contains("\"endTime\":\"2024-01-01T10:30\""));
+        assertEquals(List.of(task), taskManager.getHistory());
+
+        assertEquals(200, send("POST", "/tasks", "{\"id\":" + task.getId()
+                + ",\"name\":\"Задача\",\"description\":\"Описание\",\"status\":\"DONE\"}").statusCode());
+        assertEquals(Status.DONE, taskManager.getListOfTasks().getFirst().getStatus());
+
+        assertEquals(204, send("DELETE", "/tasks/" + task.getId(), null).statusCode());
+        assertTrue(taskManager.getListOfTasks().isEmpty());
+        assertEquals(404, send("GET", "/tasks/" + task.getId(), null).statusCode());
+    }
+
+    @Test
+    @DisplayName("Отдавать подзадачи эпика, историю и список по приоритету")
+    public void epicSubtasksHistoryAndPrioritized() throws Exception {
+        Epic epic = new Epic("Эпик", "Описание");
+        taskManager.addEpic(epic);
+        assertEquals(201, send("POST", "/subtasks", "{\"name\":\"Подзадача\",\"description\":\"Описание\","
+                + "\"epic\":" + epic.getId() + ",\"startTime\":\"2024-01-01T10:00\",\"duration\":60}").statusCode());
+        Subtask subtask = taskManager.getListOfSubtasks().getFirst();
+
+        HttpResponse<String> subtasks = send("GET", "/epics/" + epic.getId() + "/subtasks", null);
+        assertEquals(200, subtasks.statusCode());
+        assertEquals(TaskJson.toJson(List.of(subtask)), subtasks.body());
+
+        assertEquals(200, send("POST", "/epics", "{\"id\":" + epic.getId()
+                + ",\"name\":\"Новое имя\",\"description\":\"Описание\"}").statusCode());
+        assertEquals(List.of(subtask.getId()), taskManager.getListOfEpics().getFirst().getSubtaskIds());
+
+        send("GET", "/epics/" + epic.getId(), null);
+        assertEquals(TaskJson.toJson(taskManager.getHistory()), send("GET", "/history", null).body());
+        assertEquals(TaskJson.toJson(List.of(subtask)), send("GET", "/prioritized", null).body());
+    }
+
+    @Test
+    @DisplayName("Возвращать коды ошибок для пересечений, неверного JSON и неизвестных путей")
+    public void errorStatuses() throws Exception {
+        String body = "{\"name\":\"Задача\",\"description\":\"Описание\",\"startTime\":\"2024-01-01T10:00\","
+                + "\"duration\":30}";
+        assertEquals(201, send("POST", "/tasks", body).statusCode());
+        assertEquals(406, send("POST", "/tasks", body).statusCode());
+        assertEquals(400, send("POST", "/tasks", "{\"name\":").statusCode());
+        assertEquals(400, send("POST", "/tasks", "{\"id\":4294967297,\"name\":\"Задача\"}").statusCode());
+        assertEquals(400, send("POST", "/tasks", "{\"id\":1.5,\"name\":\"Задача\"}").statusCode());
+        assertEquals(400, send("POST", "/subtasks", "{\"name\":\"Подзадача\",\"epic\":-2147483649}").statusCode());
+        assertEquals(404, send("POST", "/subtasks", "{\"name\":\"Подзадача\",\"epic\":99}").statusCode());
+        assertEquals(404, send("GET", "/epics/99/subtasks", null).statusCode());
+        assertEquals(404, send("GET", "/tasksx", null).statusCode());
+        assertEquals(404, send("POST", "/tasks", "{\"id\":99,\"name\":\"Задача\"}").statusCode());
+        assertEquals(404, send("DELETE", "/tasks/99", null).statusCode());
+        assertEquals(404, send("DELETE", "/epics/99", null).statusCode());
+        assertEquals(405, send("PUT", "/tasks", body).statusCode());
+        assertEquals(1, taskManager.getListOfTasks().size());
+        assertTrue(taskManager.getListOfSubtasks().isEmpty());
+        assertTrue(taskManager.getHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Обрабатывать параллельные запросы многих клиентов")
+    public void concurrentClients() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String body = "{\"name\":\"Задача" + i + "\",\"description\":\"Описание\",\"startTime\":\""
+                    + LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i * 10L) + "\",\"duration\":5}";
+            responses.add(client.sendAsync(request("POST", "/tasks", body), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(201, response.get().statusCode());
+        }
+        assertEquals(200, taskManager.getListOfTasks().size());
+        assertEquals(200, taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    @DisplayName("Выполнять запросы к непотокобезопасному менеджеру по одному")
+    public void serializesRequestsToPlainManager() throws Exception {
+        server.stop();
+        taskManager = Managers.getDefault();
+        server = new HttpTaskServer(taskManager, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String body = "{\"name\":\"Задача" + i + "\",\"description\":\"Описание\",\"startTime\":\""
+                    + LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i * 10L) + "\",\"duration\":5}";
+            responses.add(client.sendAsync(request("POST", "/tasks", body), HttpResponse.BodyHandlers.ofString()));
+            responses.add(client.sendAsync(request("GET", "/prioritized", null), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertTrue(response.get().statusCode() == 201 || response.get().statusCode() == 200);
+        }
+        assertEquals(200, taskManager.getListOfTasks().size());
+        assertEquals(200, taskManager.getPrioritizedTasks().size());
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        return client.send(request(method, path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest request(String method, String path, String body) {
+        HttpRequest.BodyPublisher publisher = body == null
+                ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body);
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                .method(method, publisher)
+                .build();
+    }
+}
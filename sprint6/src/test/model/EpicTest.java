@@ -4,9 +4,14 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import model.Epic;
 import model.Status;
+import model.Subtask;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 class EpicTest {
 
@@ -17,4 +22,139 @@ class EpicTest {
         Epic epic2 = new Epic("Epic 2", "Описание 2", 1, Status.NEW, Arrays.asList(4, 5, 6));
         assertEquals(epic1, epic2, "Эпики с одинаковым id должны быть равны");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Пересчитывать статус и время эпика при изменении подзадач")
+    public void epicAggregatesShouldFollowSubtaskChanges() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Epic epic = new Epic("Epic 1", "Описание 1", 1, Status.NEW);
+        Subtask first = new Subtask("Подзадача 1", "Описание", 2, Status.NEW, 1, start, 60);
+        Subtask second = new Subtask("Подзадача 2", "Описание", 3, Status.DONE, 1, start.plusHours(2), 30);
+
+        epic.addSubtask(first);
+        epic.addSubtask(second);
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        assertEquals(start, epic.getStartTime());
+        assertEquals(start.plusMinutes(150), epic.getEndTime());
+        assertEquals(90, epic.getDuration());
+
+        first.setStatus(Status.DONE);
+        epic.updateSubtask(first);
+        assertEquals(Status.DONE, epic.getStatus());
+
+        epic.removeSubtask(second);
+        assertEquals(start.plusMinutes(60), epic.getEndTime());
+        assertEquals(60, epic.getDuration());
+
+        epic.clearSubtasks();
+        assertEquals(Status.NEW, epic.getStatus());
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+        assertEquals(0, epic.getDuration());
+    }
+
+    @Test
+    @DisplayName("Сохранять порядок подзадач после удаления")
+    public void subtaskOrderShouldSurviveRemoval() {
+        Epic epic = new Epic("Epic 1", "Описание 1", 1, Status.NEW);
+        Subtask first = new Subtask("Подзадача 1", "Описание", 2, Status.NEW, 1);
+        Subtask second = new Subtask("Подзадача 2", "Описание", 3, Status.NEW, 1);
+        Subtask third = new Subtask("Подзадача 3", "Описание", 4, Status.DONE, 1);
+        epic.addSubtask(first);
+        epic.addSubtask(second);
+        epic.addSubtask(third);
+
+        epic.removeSubtask(second);
+        assertEquals(List.of(2, 4), epic.getSubtaskIds());
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+
+        Subtask updated = new Subtask("Подзадача 1", "Новое описание", 2, Status.DONE, 1);
+        epic.updateSubtask(updated);
+        assertEquals(List.of(2, 4), epic.getSubtaskIds());
+        assertEquals(Status.DONE, epic.getStatus());
+    }
+
+    @Test
+    @DisplayName("Сохранять порядок и расчётные поля после массового удаления подзадач")
+    public void subtaskOrderAndAggregatesShouldSurviveMassRemoval() {
+        Epic epic = new Epic("Epic 1", "Описание 1", 1, Status.NEW);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            Status status = i % 2 == 0 ? Status.DONE : Status.NEW;
+            Subtask subtask = new Subtask("Подзадача " + i, "Описание", 2 + i, status, 1, start.plusHours(i), 30);
+            subtasks.add(subtask);
+            epic.addSubtask(subtask);
+        }
+        List<Integer> expectedIds = new ArrayList<>();
+        for (Subtask subtask : subtasks) {
+            if (subtask.getId() % 10 == 7) {
+                expectedIds.add(subtask.getId());
+            } else {
+                epic.removeSubtask(subtask);
+            }
+        }
+
+        assertEquals(expectedIds, epic.getSubtaskIds());
+        assertEquals(Status.NEW, epic.getStatus());
+        assertEquals(start.plusHours(5), epic.getStartTime());
+        assertEquals(start.plusHours(995).plusMinutes(30), epic.getEndTime());
+        assertEquals(100 * 30, epic.getDuration());
+
+        Subtask readded = subtasks.get(0);
+        epic.addSubtask(readded);
+        assertEquals(readded.getId(), epic.getSubtaskIds().getLast());
+        assertEquals(Status.IN_PROGRESS, epic.getStatus());
+        assertEquals(start, epic.getStartTime());
+    }
+
+    @Test
+    @DisplayName("Сохранять состав и расчётные поля подзадач, когда эпик вырос до общей области вне кучи")
+    public void subtaskLedgerShouldSurviveGrowthIntoSharedRegion() {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int epicId = 1; epicId <= 2; epicId++) {
+            Epic epic = new Epic("Epic", "Описание", epicId, Status.NEW);
+            List<Integer> expectedIds = new ArrayList<>();
+            for (int i = 0; i < 5_000; i++) {
+                epic.addSubtask(new Subtask("Подзадача " + i, "Описание", 10 + i, Status.DONE, epicId,
+                        start.plusHours(i), 30));
+                expectedIds.add(10 + i);
+            }
+
+            assertEquals(expectedIds, epic.getSubtaskIds());
+            assertEquals(Status.DONE, epic.getStatus());
+            assertEquals(start, epic.getStartTime());
+            assertEquals(start.plusHours(4_999).plusMinutes(30), epic.getEndTime());
+
+            epic.addSubtask(new Subtask("Подзадача", "Описание", 10, Status.NEW, epicId, start.minusHours(1), 30));
+            epic.removeSubtask(new Subtask("Подзадача", "Описание", 10 + 4_999, Status.DONE, epicId));
+            assertEquals(Status.IN_PROGRESS, epic.getStatus());
+            assertEquals(start.minusHours(1), epic.getStartTime());
+            assertEquals(start.plusHours(4_998).plusMinutes(30), epic.getEndTime());
+            assertEquals(4_999 * 30, epic.getDuration());
+        }
+    }
+
+    @Test
+    @DisplayName("Пересчитывать начало и конец эпика при переносе подзадач")
+    public void epicTimeShouldFollowMovedSubtasks() {
+        Epic epic = new Epic("Epic 1", "Описание 1", 1, Status.NEW);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Subtask early = new Subtask("Подзадача 1", "Описание", 2, Status.NEW, 1, start, 60);
+        Subtask late = new Subtask("Подзадача 2", "Описание", 3, Status.NEW, 1, start.plusDays(1), 60);
+        Subtask unscheduled = new Subtask("Подзадача 3", "Описание", 4, Status.NEW, 1, null, 15);
+        epic.addSubtasks(List.of(early, late, unscheduled));
+        assertEquals(start, epic.getStartTime());
+        assertEquals(start.plusDays(1).plusHours(1), epic.getEndTime());
+
+        epic.updateSubtask(new Subtask("Подзадача 1", "Описание", 2, Status.NEW, 1, start.plusDays(2), 30));
+        assertEquals(start.plusDays(1), epic.getStartTime());
+        assertEquals(start.plusDays(2).plusMinutes(30), epic.getEndTime());
+
+        epic.removeSubtask(late);
+        epic.updateSubtask(new Subtask("Подзадача 1", "Описание", 2, Status.NEW, 1, null, 30));
+        assertNull(epic.getStartTime());
+        assertNull(epic.getEndTime());
+        assertEquals(45, epic.getDuration());
+    }
+}
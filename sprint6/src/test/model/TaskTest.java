@@ -1,9 +1,14 @@
 package test.model;
 
+import model.EpochMinutes;
 import model.Status;
 import model.Task;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class TaskTest {
@@ -16,4 +21,37 @@ class TaskTest {
         assertEquals(task1, task2,
                 "Ошибка, экземпляры класса Task должны быть равны друг другу, если у них одинаковые id");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Хранить время задачи в минутах и выводить из них LocalDateTime")
+    public void timeIsStoredInEpochMinutes() {
+        Task task = new Task("Купить хлеб", "В Пятерочке", LocalDateTime.of(2024, 1, 1, 12, 0, 45), 90);
+        long startMinute = LocalDateTime.of(2024, 1, 1, 12, 0).toEpochSecond(ZoneOffset.UTC) / 60;
+        assertEquals(startMinute, task.getStartMinute());
+        assertEquals(startMinute + 90, task.getEndMinute());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 12, 0), task.getStartTime());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 13, 30), task.getEndTime());
+
+        task.setDuration(30);
+        assertEquals(LocalDateTime.of(2024, 1, 1, 12, 30), task.getEndTime());
+        task.setStartMinute(EpochMinutes.of(LocalDateTime.of(1969, 12, 31, 23, 59)));
+        assertEquals(-1, task.getStartMinute());
+        assertEquals(LocalDateTime.of(1970, 1, 1, 0, 29), task.getEndTime());
+        task.setStartTime(null);
+        assertEquals(EpochMinutes.NONE, task.getStartMinute());
+        assertNull(task.getStartTime());
+        assertNull(task.getEndTime());
+    }
+
+    @Test
+    @DisplayName("Считать минуты по календарной дате так же, как через LocalDateTime")
+    public void epochMinutesFromCalendarFields() {
+        for (LocalDateTime dateTime = LocalDateTime.of(1899, 12, 25, 23, 59);
+             dateTime.getYear() < 2101; dateTime = dateTime.plusDays(17).plusMinutes(131)) {
+            assertEquals(EpochMinutes.of(dateTime), EpochMinutes.of(dateTime.getYear(), dateTime.getMonthValue(),
+                    dateTime.getDayOfMonth(), dateTime.getHour(), dateTime.getMinute()), dateTime.toString());
+        }
+        assertEquals(EpochMinutes.of(LocalDateTime.of(2024, 2, 29, 12, 0)), EpochMinutes.of(2024, 2, 29, 12, 0));
+        assertEquals(0, EpochMinutes.of(1970, 1, 1, 0, 0));
+    }
+}